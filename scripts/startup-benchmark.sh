@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Measures time from process start to the first served HTTP request.
+# Usage: scripts/startup-benchmark.sh [runs] [extra java options...]
+# Build first with: ./mvnw package (or ./mvnw -Pcds package to also produce target/app-cds.jsa)
+
+set -euo pipefail
+
+RUNS=${1:-5}
+shift || true
+JAR=$(ls target/social_network-*.jar | grep -v original | head -n 1)
+PORT=${PORT:-8082}
+URL="http://localhost:${PORT}/auth/login"
+JAVA_OPTS=("$@")
+
+if [ -f target/app-cds.jsa ]; then
+    JAVA_OPTS+=("-XX:SharedArchiveFile=target/app-cds.jsa")
+fi
+
+total=0
+for run in $(seq 1 "$RUNS"); do
+    start=$(date +%s%N)
+    java "${JAVA_OPTS[@]}" -Dspring.profiles.active=prod -jar "$JAR" > /dev/null 2>&1 &
+    pid=$!
+    until curl -s -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Application exited before serving a request" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    end=$(date +%s%N)
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+
+    elapsed=$(( (end - start) / 1000000 ))
+    total=$(( total + elapsed ))
+    echo "run ${run}: ${elapsed} ms to first served request"
+done
+
+echo "average: $(( total / RUNS )) ms over ${RUNS} runs"
@@ -0,0 +1,98 @@
+package com.project.social_network.bulkhead;
+
+import com.project.social_network.exceptions.ServiceUnavailableException;
+import com.project.social_network.logger.RequestTimings;
+import com.project.social_network.sql.SqlStatementCounter;
+import com.project.social_network.sql.SqlStatistics;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed thread pool of one route class. Admission is bounded by a semaphore covering the running
+ * and the queued requests, so a full class fails fast with 503 instead of letting its queue grow.
+ * The permit is returned when the async request ends, however it ends: a task cancelled on timeout
+ * while still queued never runs, so its own code cannot be relied on to release it.
+ * The request's SQL statistics and timings are bound to the worker for the duration of the call,
+ * so the SQL budget and the slow-request sampler see the handler's work and not just the dispatch.
+ */
+public class Bulkhead {
+
+    private final EBulkhead name;
+    private final BulkheadProperties.Pool pool;
+    private final ThreadPoolTaskExecutor executor;
+    private final Semaphore permits;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public Bulkhead(EBulkhead name, BulkheadProperties.Pool pool) {
+        this.name = name;
+        this.pool = pool;
+        this.permits = new Semaphore(Math.max(pool.getThreads(), 1) + Math.max(pool.getQueueCapacity(), 0));
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(Math.max(pool.getThreads(), 1));
+        this.executor.setMaxPoolSize(Math.max(pool.getThreads(), 1));
+        this.executor.setThreadNamePrefix("bulkhead-" + name.name().toLowerCase().replace('_', '-') + "-");
+        this.executor.setDaemon(true);
+        this.executor.initialize();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> WebAsyncTask<T> submit(Callable<T> callable) {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many " + name + " requests, try again later");
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+        SqlStatistics statistics = SqlStatementCounter.current();
+        RequestTimings timings = RequestTimings.current();
+        WebAsyncTask<T> task = new WebAsyncTask<>(pool.getTimeoutMs(), executor, () -> {
+            SqlStatistics previousStatistics = SqlStatementCounter.bind(statistics);
+            RequestTimings previousTimings = RequestTimings.bind(timings);
+            try {
+                return callable.call();
+            } finally {
+                RequestTimings.unbind(timings, previousTimings);
+                SqlStatementCounter.bind(previousStatistics);
+            }
+        });
+        task.onCompletion(() -> {
+            release.run();
+            completed.increment();
+        });
+        task.onTimeout(() -> {
+            release.run();
+            timeouts.increment();
+            throw new AsyncRequestTimeoutException();
+        });
+        task.onError(() -> {
+            release.run();
+            // let Spring resolve the original error
+            return (T) CallableProcessingInterceptor.RESULT_NONE;
+        });
+        return task;
+    }
+
+    public BulkheadStats getStats() {
+        int active = executor.getActiveCount();
+        int inUse = Math.max(pool.getThreads(), 1) + Math.max(pool.getQueueCapacity(), 0) - permits.availablePermits();
+        return new BulkheadStats(name, executor.getPoolSize(), active, Math.max(inUse - active, 0),
+                pool.getQueueCapacity(), completed.sum(), rejected.sum(), timeouts.sum());
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,15 @@
+package com.project.social_network.bulkhead;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadConfiguration {
+
+    @Bean
+    public Bulkheads bulkheads(BulkheadProperties properties) {
+        return new Bulkheads(properties);
+    }
+}
@@ -0,0 +1,50 @@
+package com.project.social_network.bulkhead;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * One pool per route class, e.g. bulkheads.feed.threads=16. queue-capacity counts requests waiting
+ * for a thread; once it is full the class answers 503. timeout-ms bounds the whole async request.
+ * With enabled=false handlers run on the servlet thread as before.
+ */
+@Data
+@ConfigurationProperties(prefix = "bulkheads")
+public class BulkheadProperties {
+
+    private boolean enabled = true;
+    private Pool auth = new Pool(8, 100, 10000);
+    private Pool feed = new Pool(16, 200, 15000);
+    private Pool pointRead = new Pool(16, 400, 5000);
+    private Pool write = new Pool(16, 400, 10000);
+
+    public Pool poolFor(EBulkhead bulkhead) {
+        switch (bulkhead) {
+            case AUTH:
+                return auth;
+            case FEED:
+                return feed;
+            case POINT_READ:
+                return pointRead;
+            default:
+                return write;
+        }
+    }
+
+    @Data
+    public static class Pool {
+
+        private int threads;
+        private int queueCapacity;
+        private long timeoutMs;
+
+        public Pool() {
+        }
+
+        public Pool(int threads, int queueCapacity, long timeoutMs) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+            this.timeoutMs = timeoutMs;
+        }
+    }
+}
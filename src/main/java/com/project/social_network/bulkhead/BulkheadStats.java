@@ -0,0 +1,21 @@
+package com.project.social_network.bulkhead;
+
+import lombok.Data;
+
+@Data
+public class BulkheadStats {
+
+    private final EBulkhead name;
+    private final int threads;
+    private final int active;
+    private final int queued;
+    private final int queueCapacity;
+    private final long completed;
+    private final long rejected;
+    private final long timeouts;
+
+    public double getSaturation() {
+        int capacity = threads + queueCapacity;
+        return capacity == 0 ? 0 : (double) (active + queued) / capacity;
+    }
+}
@@ -0,0 +1,54 @@
+package com.project.social_network.bulkhead;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs controller handlers on the {@link Bulkhead} of their route class through async servlet
+ * processing, so a slow class only exhausts its own threads and never the servlet pool.
+ */
+public class Bulkheads implements DisposableBean {
+
+    private final boolean enabled;
+    private final Map<EBulkhead, Bulkhead> bulkheads = new EnumMap<>(EBulkhead.class);
+    private final TaskExecutorAdapter servletThreadExecutor = new TaskExecutorAdapter(new SyncTaskExecutor());
+
+    public Bulkheads(BulkheadProperties properties) {
+        this.enabled = properties.isEnabled();
+        if (enabled) {
+            for (EBulkhead bulkhead : EBulkhead.values()) {
+                bulkheads.put(bulkhead, new Bulkhead(bulkhead, properties.poolFor(bulkhead)));
+            }
+        }
+    }
+
+    public <T> WebAsyncTask<T> submit(EBulkhead bulkhead, Callable<T> callable) {
+        if (!enabled) {
+            return new WebAsyncTask<>(null, servletThreadExecutor, callable);
+        }
+        return bulkheads.get(bulkhead).submit(callable);
+    }
+
+    public List<BulkheadStats> getStats() {
+        List<BulkheadStats> stats = new ArrayList<>(bulkheads.size());
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            stats.add(bulkhead.getStats());
+        }
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            bulkhead.shutdown();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.project.social_network.bulkhead;
+
+public enum EBulkhead {
+    AUTH,
+    FEED,
+    POINT_READ,
+    WRITE
+}
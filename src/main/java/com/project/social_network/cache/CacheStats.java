@@ -0,0 +1,20 @@
+package com.project.social_network.cache;
+
+import lombok.Data;
+
+@Data
+public class CacheStats {
+
+    private final String name;
+    private final int entries;
+    private final long usedBytes;
+    private final long maxBytes;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,77 @@
+package com.project.social_network.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.social_network.codec.BinaryMediaTypes;
+import com.project.social_network.entity.Comment;
+import com.project.social_network.entity.Post;
+import com.project.social_network.facade.CommentFacade;
+import com.project.social_network.facade.PostFacade;
+import com.project.social_network.fields.FieldSelection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes post and comment lists through the serialized-response caches. A cached element is
+ * the complete JSON of the DTO, so callers check canServe() first.
+ */
+@Component
+public class CachedResponseWriter {
+
+    private final SerializedResponseCache postCache;
+    private final SerializedResponseCache commentCache;
+    private final PostFacade postFacade;
+    private final CommentFacade commentFacade;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public CachedResponseWriter(@Qualifier("postResponseCache") SerializedResponseCache postCache,
+                                @Qualifier("commentResponseCache") SerializedResponseCache commentCache,
+                                PostFacade postFacade,
+                                CommentFacade commentFacade,
+                                ObjectMapper objectMapper) {
+        this.postCache = postCache;
+        this.commentCache = commentCache;
+        this.postFacade = postFacade;
+        this.commentFacade = commentFacade;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * False when the current request selects fields or asks for a binary encoding.
+     */
+    public boolean canServe() {
+        return FieldSelection.current().isAll() && !BinaryMediaTypes.isRequested();
+    }
+
+    public JsonFragments writePosts(List<Post> posts) {
+        List<byte[]> elements = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            elements.add(postCache.get(post.getId(), post.getRevisionOrZero(),
+                    () -> encode(postFacade.postToPostDTO(post))));
+        }
+        return new JsonFragments(elements);
+    }
+
+    public JsonFragments writeComments(List<Comment> comments) {
+        List<byte[]> elements = new ArrayList<>(comments.size());
+        for (Comment comment : comments) {
+            // comment payloads never change once written, only their status does
+            elements.add(commentCache.get(comment.getId(), 0,
+                    () -> encode(commentFacade.commentToCommentDTO(comment))));
+        }
+        return new JsonFragments(elements);
+    }
+
+    private byte[] encode(Object dto) {
+        try {
+            return objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize " + dto.getClass().getSimpleName(), ex);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.project.social_network.cache;
+
+import java.util.List;
+
+/**
+ * A JSON array whose elements are already encoded. Written by JsonFragmentsHttpMessageConverter
+ * by splicing the element bytes together.
+ */
+public class JsonFragments {
+
+    private final List<byte[]> elements;
+
+    public JsonFragments(List<byte[]> elements) {
+        this.elements = elements;
+    }
+
+    public List<byte[]> getElements() {
+        return elements;
+    }
+
+    public long contentLength() {
+        long length = 2 + Math.max(elements.size() - 1, 0);
+        for (byte[] element : elements) {
+            length += element.length;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,38 @@
+package com.project.social_network.cache;
+
+import com.project.social_network.invalidation.ECacheRegion;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class ResponseCacheConfiguration implements WebMvcConfigurer {
+
+    @Bean
+    public SerializedResponseCache postResponseCache(@Value("${response-cache.posts.max-bytes:33554432}") long maxBytes,
+                                                     @Value("${response-cache.max-entry-bytes:65536}") int maxEntryBytes) {
+        return new SerializedResponseCache("posts", maxBytes, maxEntryBytes);
+    }
+
+    @Bean
+    public SerializedResponseCache commentResponseCache(@Value("${response-cache.comments.max-bytes:16777216}") long maxBytes,
+                                                        @Value("${response-cache.max-entry-bytes:65536}") int maxEntryBytes) {
+        return new SerializedResponseCache("comments", maxBytes, maxEntryBytes);
+    }
+
+    @Bean
+    public ResponseCacheInvalidationHandler postResponseCacheInvalidationHandler(
+            @Qualifier("postResponseCache") SerializedResponseCache postResponseCache) {
+        return new ResponseCacheInvalidationHandler(ECacheRegion.POST, postResponseCache);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new JsonFragmentsHttpMessageConverter());
+    }
+}
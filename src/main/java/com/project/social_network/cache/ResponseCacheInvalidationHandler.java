@@ -0,0 +1,30 @@
+package com.project.social_network.cache;
+
+import com.project.social_network.invalidation.ECacheRegion;
+import com.project.social_network.invalidation.InvalidationHandler;
+
+public class ResponseCacheInvalidationHandler implements InvalidationHandler {
+
+    private final ECacheRegion region;
+    private final SerializedResponseCache cache;
+
+    public ResponseCacheInvalidationHandler(ECacheRegion region, SerializedResponseCache cache) {
+        this.region = region;
+        this.cache = cache;
+    }
+
+    @Override
+    public ECacheRegion getRegion() {
+        return region;
+    }
+
+    @Override
+    public void evict(long id, long version) {
+        cache.evictOlderThan(id, version);
+    }
+
+    @Override
+    public void evictAll() {
+        cache.clear();
+    }
+}
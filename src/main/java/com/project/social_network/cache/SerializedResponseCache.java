@@ -0,0 +1,132 @@
+package com.project.social_network.cache;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of pre-encoded response fragments keyed by entity id and entity version.
+ *
+ * An entry is only served while its version matches the version of the entity being written,
+ * so bumping the version on the entity invalidates the cached bytes on every instance without
+ * any messaging. Memory is accounted in bytes and bounded by maxBytes; eviction uses the CLOCK
+ * (second chance) policy: reads only set a flag, and the eviction hand skips flagged entries once.
+ */
+public class SerializedResponseCache {
+
+    // rough per-entry overhead of the map node, the key and the Entry object
+    static final int ENTRY_OVERHEAD = 96;
+
+    private final String name;
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final Object evictionLock = new Object();
+    private Iterator<Entry> hand;
+
+    public SerializedResponseCache(String name, long maxBytes, int maxEntryBytes) {
+        this.name = name;
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    /**
+     * Returns the cached bytes of the given entity version, encoding and caching them on a miss.
+     */
+    public byte[] get(Long id, long version, Supplier<byte[]> encoder) {
+        Entry entry = entries.get(id);
+        if (entry != null && entry.version == version) {
+            entry.referenced = true;
+            hits.increment();
+            return entry.bytes;
+        }
+        misses.increment();
+        byte[] bytes = encoder.get();
+        if (bytes.length <= maxEntryBytes) {
+            put(id, new Entry(id, version, bytes));
+        }
+        return bytes;
+    }
+
+    public void evict(Long id) {
+        Entry removed = entries.remove(id);
+        if (removed != null) {
+            usedBytes.addAndGet(-removed.size());
+        }
+    }
+
+    /**
+     * Drops the entry of the given id unless it already holds the given version or a newer one.
+     */
+    public void evictOlderThan(Long id, long version) {
+        Entry entry = entries.get(id);
+        if (entry != null && entry.version < version && entries.remove(id, entry)) {
+            usedBytes.addAndGet(-entry.size());
+        }
+    }
+
+    public void clear() {
+        for (Long id : entries.keySet()) {
+            evict(id);
+        }
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(name, entries.size(), usedBytes.get(), maxBytes,
+                hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private void put(Long id, Entry entry) {
+        Entry previous = entries.put(id, entry);
+        usedBytes.addAndGet(entry.size() - (previous == null ? 0 : previous.size()));
+        if (usedBytes.get() > maxBytes) {
+            evictUntilWithinBudget();
+        }
+    }
+
+    private void evictUntilWithinBudget() {
+        synchronized (evictionLock) {
+            // each entry gets at most one second chance, so two sweeps always free enough
+            int budget = 2 * entries.size() + 1;
+            while (usedBytes.get() > maxBytes && budget-- > 0) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = entries.values().iterator();
+                    if (!hand.hasNext()) {
+                        return;
+                    }
+                }
+                Entry candidate = hand.next();
+                if (candidate.referenced) {
+                    candidate.referenced = false;
+                } else if (entries.remove(candidate.id, candidate)) {
+                    usedBytes.addAndGet(-candidate.size());
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        final Long id;
+        final long version;
+        final byte[] bytes;
+        volatile boolean referenced;
+
+        Entry(Long id, long version, byte[] bytes) {
+            this.id = id;
+            this.version = version;
+            this.bytes = bytes;
+        }
+
+        long size() {
+            return bytes.length + ENTRY_OVERHEAD;
+        }
+    }
+}
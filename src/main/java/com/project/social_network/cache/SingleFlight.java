@@ -0,0 +1,78 @@
+package com.project.social_network.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into one call. The first caller for a key runs
+ * the loader on its own thread, callers arriving while it runs wait for that result, including
+ * its exception. A waiter gives up after the timeout and loads the key itself, so a stuck load
+ * delays followers but never fails them. Results are not kept once the load finishes, they must
+ * be safe to share between threads.
+ */
+public class SingleFlight<K, V> {
+
+    public static final Logger LOG = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final String name;
+    private final long timeoutMs;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong collapsed = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    public SingleFlight(String name, long timeoutMs) {
+        this.name = name;
+        this.timeoutMs = Math.max(timeoutMs, 1);
+    }
+
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(key, existing, loader);
+        }
+
+        loads.incrementAndGet();
+        try {
+            V value = loader.get();
+            inFlight.remove(key, flight);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    public SingleFlightStats getStats() {
+        return new SingleFlightStats(name, inFlight.size(), loads.get(), collapsed.get(), timeouts.get());
+    }
+
+    private V await(K key, CompletableFuture<V> flight, Supplier<V> loader) {
+        try {
+            V value = flight.get(timeoutMs, TimeUnit.MILLISECONDS);
+            collapsed.incrementAndGet();
+            return value;
+        } catch (ExecutionException ex) {
+            collapsed.incrementAndGet();
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            timeouts.incrementAndGet();
+            LOG.warn("{} load of {} still running after {} ms, loading again", name, key, timeoutMs);
+            loads.incrementAndGet();
+            return loader.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + name + " load of " + key, ex);
+        }
+    }
+}
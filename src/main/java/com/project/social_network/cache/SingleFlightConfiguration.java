@@ -0,0 +1,24 @@
+package com.project.social_network.cache;
+
+import com.project.social_network.entity.Comment;
+import com.project.social_network.entity.Post;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class SingleFlightConfiguration {
+
+    @Bean
+    public SingleFlight<Long, Post> postSingleFlight(@Value("${single-flight.posts.timeout-ms:2000}") long timeoutMs) {
+        return new SingleFlight<>("posts", timeoutMs);
+    }
+
+    @Bean
+    public SingleFlight<Long, List<Comment>> commentSingleFlight(
+            @Value("${single-flight.comments.timeout-ms:2000}") long timeoutMs) {
+        return new SingleFlight<>("comments", timeoutMs);
+    }
+}
@@ -0,0 +1,18 @@
+package com.project.social_network.cache;
+
+import lombok.Data;
+
+@Data
+public class SingleFlightStats {
+
+    private final String name;
+    private final int inFlight;
+    private final long loads;
+    private final long collapsed;
+    private final long timeouts;
+
+    public double getCollapseRate() {
+        long total = loads + collapsed;
+        return total == 0 ? 0 : (double) collapsed / total;
+    }
+}
@@ -0,0 +1,43 @@
+package com.project.social_network.codec;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+public final class BinaryMediaTypes {
+
+    public static final MediaType APPLICATION_CBOR = MediaType.APPLICATION_CBOR;
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private BinaryMediaTypes() {
+    }
+
+    /**
+     * Whether the Accept header of the current request names one of the binary encodings.
+     */
+    public static boolean isRequested() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return false;
+        }
+        String accept = ((ServletRequestAttributes) attributes).getRequest().getHeader("Accept");
+        if (accept == null) {
+            return false;
+        }
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            for (MediaType mediaType : mediaTypes) {
+                if (mediaType.equalsTypeAndSubtype(APPLICATION_CBOR) || mediaType.equalsTypeAndSubtype(APPLICATION_SMILE)) {
+                    return true;
+                }
+            }
+        } catch (InvalidMediaTypeException ex) {
+            return false;
+        }
+        return false;
+    }
+}
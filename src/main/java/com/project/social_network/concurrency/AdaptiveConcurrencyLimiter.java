@@ -0,0 +1,146 @@
+package com.project.social_network.concurrency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estimates how many requests may be in flight from their latency, in the style of the gradient
+ * limiters: every sample window the average latency is compared with a slowly moving long-term
+ * average. While the window stays within rtt-tolerance of it the limit grows by its square root,
+ * beyond that it shrinks in proportion, by at most half per window. The limit does not grow while
+ * fewer than half of it are in use, so an idle service does not drift to max-limit.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public static final Logger LOG = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private final ConcurrencyLimitProperties properties;
+    private final long sampleWindowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<ERoutePriority, LongAdder> accepted = new EnumMap<>(ERoutePriority.class);
+    private final Map<ERoutePriority, LongAdder> rejected = new EnumMap<>(ERoutePriority.class);
+    private volatile double limit;
+
+    // guarded by this
+    private double longRttNanos;
+    private double lastWindowRttNanos;
+    private long windowStartNanos = System.nanoTime();
+    private long windowRttSumNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+        this.sampleWindowNanos = TimeUnit.MILLISECONDS.toNanos(properties.getSampleWindowMs());
+        this.limit = clamp(properties.getInitialLimit(), properties.getMinLimit(), properties.getMaxLimit());
+        for (ERoutePriority priority : ERoutePriority.values()) {
+            accepted.put(priority, new LongAdder());
+            rejected.put(priority, new LongAdder());
+        }
+    }
+
+    public boolean tryAcquire(ERoutePriority priority) {
+        int capacity = capacity(priority);
+        while (true) {
+            int current = inFlight.get();
+            if (current >= capacity) {
+                rejected.get(priority).increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.get(priority).increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param sample false for requests whose latency says nothing about load, e.g. failed ones
+     */
+    public void release(long rttNanos, boolean sample) {
+        int current = inFlight.getAndDecrement();
+        if (sample) {
+            onSample(rttNanos, current);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized ConcurrencyLimitStats getStats() {
+        Map<ERoutePriority, Long> acceptedCounts = new EnumMap<>(ERoutePriority.class);
+        Map<ERoutePriority, Long> rejectedCounts = new EnumMap<>(ERoutePriority.class);
+        for (ERoutePriority priority : ERoutePriority.values()) {
+            acceptedCounts.put(priority, accepted.get(priority).sum());
+            rejectedCounts.put(priority, rejected.get(priority).sum());
+        }
+        return new ConcurrencyLimitStats(getLimit(), inFlight.get(), longRttNanos / 1_000_000.0,
+                lastWindowRttNanos / 1_000_000.0, acceptedCounts, rejectedCounts);
+    }
+
+    private int capacity(ERoutePriority priority) {
+        double current = limit;
+        switch (priority) {
+            case LOW:
+                return Math.max(1, (int) (current * properties.getLowPriorityShare()));
+            case CRITICAL:
+                return Math.max((int) current + 1, (int) (current * properties.getCriticalHeadroom()));
+            default:
+                return (int) current;
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtRelease) {
+        windowRttSumNanos += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtRelease);
+
+        long now = System.nanoTime();
+        if (now - windowStartNanos < sampleWindowNanos || windowSamples < properties.getMinWindowSamples()) {
+            return;
+        }
+        update((double) windowRttSumNanos / windowSamples, windowMaxInFlight);
+        windowStartNanos = now;
+        windowRttSumNanos = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+    }
+
+    private void update(double shortRttNanos, int maxInFlight) {
+        lastWindowRttNanos = shortRttNanos;
+        if (longRttNanos == 0) {
+            longRttNanos = shortRttNanos;
+        } else {
+            longRttNanos += (shortRttNanos - longRttNanos) / Math.max(properties.getLongWindow(), 1);
+        }
+        // after a latency spike has passed, let the long-term average catch up instead of waiting it out
+        if (longRttNanos > shortRttNanos * 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double current = limit;
+        if (maxInFlight < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getRttTolerance() * longRttNanos / shortRttNanos));
+        double target = current * gradient + Math.sqrt(current);
+        double next = clamp(current * (1 - properties.getSmoothing()) + target * properties.getSmoothing(),
+                properties.getMinLimit(), properties.getMaxLimit());
+        if ((int) next != (int) current) {
+            LOG.debug("Concurrency limit {} -> {} (window rtt {} ms, long rtt {} ms)", (int) current, (int) next,
+                    shortRttNanos / 1_000_000.0, longRttNanos / 1_000_000.0);
+        }
+        limit = next;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
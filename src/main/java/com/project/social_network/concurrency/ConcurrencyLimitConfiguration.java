@@ -0,0 +1,21 @@
+package com.project.social_network.concurrency;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfiguration {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+        return new AdaptiveConcurrencyLimiter(properties);
+    }
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                                         ConcurrencyLimitProperties properties) {
+        return new ConcurrencyLimitFilter(limiter, properties);
+    }
+}
@@ -0,0 +1,148 @@
+package com.project.social_network.concurrency;
+
+import com.google.gson.Gson;
+import com.project.social_network.payload.responce.MessageResponse;
+import com.project.social_network.security.SecurityConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits requests through the {@link AdaptiveConcurrencyLimiter} and answers the rest with an
+ * immediate 503, before any authentication or database work is spent on them.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter implements Ordered {
+
+    public static final Logger LOG = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private static final String REJECTED_BODY = new Gson().toJson(new MessageResponse("Server is overloaded"));
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final ConcurrencyLimitProperties properties;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, ConcurrencyLimitProperties properties) {
+        this.limiter = limiter;
+        this.properties = properties;
+    }
+
+    /**
+     * Runs first, so shed requests cost as little as possible.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ERoutePriority priority = classify(request);
+        if (!limiter.tryAcquire(priority)) {
+            LOG.debug("Shedding {} request {} {}", priority, request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(SecurityConstants.CONTENT_TYPE);
+            response.getWriter().println(REJECTED_BODY);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(start));
+            } else {
+                limiter.release(System.nanoTime() - start, !failed && response.getStatus() < 500);
+            }
+        }
+    }
+
+    private ERoutePriority classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (matches(properties.getCriticalRoutes(), method, path)) {
+            return ERoutePriority.CRITICAL;
+        }
+        if (matches(properties.getLowPriorityRoutes(), method, path)) {
+            return ERoutePriority.LOW;
+        }
+        boolean read = "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+        return !read && properties.isWritesCritical() ? ERoutePriority.CRITICAL : ERoutePriority.NORMAL;
+    }
+
+    private boolean matches(List<String> routes, String method, String path) {
+        for (String route : routes) {
+            int space = route.indexOf(' ');
+            String routeMethod = space < 0 ? "*" : route.substring(0, space);
+            String pattern = space < 0 ? route : route.substring(space + 1).trim();
+            if (("*".equals(routeMethod) || routeMethod.equalsIgnoreCase(method)) && pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Releases the permit of an async request once, however it ends.
+     */
+    private class ReleasingListener implements AsyncListener {
+
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleasingListener(long start) {
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+            release(response == null || response.getStatus() < 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(false);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(false);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release(boolean sample) {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(System.nanoTime() - start, sample);
+            }
+        }
+    }
+}
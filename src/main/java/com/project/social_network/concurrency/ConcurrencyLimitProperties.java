@@ -0,0 +1,34 @@
+package com.project.social_network.concurrency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Routes are given as "METHOD pattern", METHOD may be *, e.g. concurrency-limit.low-priority-routes=GET /posts/all.
+ * Routes in neither list are NORMAL, unless writes-critical makes them CRITICAL because they are not reads.
+ * Low priority requests are admitted up to low-priority-share of the limit, critical ones up to
+ * critical-headroom times the limit.
+ */
+@Data
+@ConfigurationProperties(prefix = "concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+    private int initialLimit = 50;
+    private int minLimit = 8;
+    private int maxLimit = 400;
+    private double smoothing = 0.2;
+    private double rttTolerance = 1.5;
+    private int longWindow = 100;
+    private long sampleWindowMs = 250;
+    private int minWindowSamples = 10;
+    private double lowPriorityShare = 0.5;
+    private double criticalHeadroom = 1.25;
+    private boolean writesCritical = true;
+    private List<String> lowPriorityRoutes = new ArrayList<>(Arrays.asList("GET /users/all-users", "GET /posts/all"));
+    private List<String> criticalRoutes = new ArrayList<>(Arrays.asList("* /auth/**"));
+}
@@ -0,0 +1,16 @@
+package com.project.social_network.concurrency;
+
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class ConcurrencyLimitStats {
+
+    private final int limit;
+    private final int inFlight;
+    private final double longRttMillis;
+    private final double lastWindowRttMillis;
+    private final Map<ERoutePriority, Long> accepted;
+    private final Map<ERoutePriority, Long> rejected;
+}
@@ -0,0 +1,7 @@
+package com.project.social_network.concurrency;
+
+public enum ERoutePriority {
+    LOW,
+    NORMAL,
+    CRITICAL
+}
@@ -0,0 +1,29 @@
+package com.project.social_network.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class FriendRequestDTO {
+
+    private Long userId;
+    private String username;
+    private String firstname;
+    private String lastname;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdDate;
+
+    public FriendRequestDTO() {
+    }
+
+    public FriendRequestDTO(Long userId, String username, String firstname, String lastname,
+                            LocalDateTime createdDate) {
+        this.userId = userId;
+        this.username = username;
+        this.firstname = firstname;
+        this.lastname = lastname;
+        this.createdDate = createdDate;
+    }
+}
@@ -0,0 +1,14 @@
+package com.project.social_network.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class FriendRequestsPageDTO {
+
+    private Integer total;
+    private Integer page;
+    private Integer size;
+    private List<FriendRequestDTO> requests;
+}
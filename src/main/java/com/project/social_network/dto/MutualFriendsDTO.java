@@ -0,0 +1,14 @@
+package com.project.social_network.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class MutualFriendsDTO {
+
+    private Integer count;
+    private Integer page;
+    private Integer size;
+    private List<UserDTO> users;
+}
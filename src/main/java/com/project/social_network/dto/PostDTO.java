@@ -1,15 +1,22 @@
 package com.project.social_network.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.project.social_network.fields.SparseFieldsAdvice;
 import lombok.Data;
 
+import java.time.LocalDateTime;
 import java.util.Set;
 
 @Data
+@JsonFilter(SparseFieldsAdvice.SPARSE_FIELDS_FILTER)
 public class PostDTO {
 
     private Long id;
     private String caption;
     private String username;
     private Integer likes;
+    private Integer commentCount;
     private Set<String> usersLiked;
+    // full precision, pass the one of the last post as before= to get the next page
+    private LocalDateTime createdDate;
 }
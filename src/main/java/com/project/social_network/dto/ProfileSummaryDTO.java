@@ -0,0 +1,36 @@
+package com.project.social_network.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.project.social_network.entity.enums.EStatus;
+import lombok.Data;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProfileSummaryDTO {
+
+    private Long id;
+    private String username;
+    private Integer friendCount;
+    private Integer postCount;
+    // only filled in on the user's own profile
+    private Integer sentRequestCount;
+    private Integer receivedRequestCount;
+    // decides who may see the summary, not part of the response
+    @JsonIgnore
+    private EStatus status;
+
+    public ProfileSummaryDTO() {
+    }
+
+    public ProfileSummaryDTO(Long id, String username, EStatus status, Integer friendCount, Integer postCount,
+                             Integer sentRequestCount, Integer receivedRequestCount) {
+        this.id = id;
+        this.username = username;
+        this.status = status;
+        this.friendCount = friendCount;
+        this.postCount = postCount;
+        this.sentRequestCount = sentRequestCount;
+        this.receivedRequestCount = receivedRequestCount;
+    }
+}
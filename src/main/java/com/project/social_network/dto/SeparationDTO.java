@@ -0,0 +1,11 @@
+package com.project.social_network.dto;
+
+import lombok.Data;
+
+@Data
+public class SeparationDTO {
+
+    private Boolean found;
+    private Boolean budgetExceeded;
+    private Integer distance;
+}
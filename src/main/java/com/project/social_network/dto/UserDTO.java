@@ -1,11 +1,14 @@
 package com.project.social_network.dto;
 
 import com.project.social_network.annotations.ValidEmail;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.project.social_network.fields.SparseFieldsAdvice;
 import lombok.Data;
 
 import javax.validation.constraints.NotEmpty;
 
 @Data
+@JsonFilter(SparseFieldsAdvice.SPARSE_FIELDS_FILTER)
 public class UserDTO {
 
     private Long id;
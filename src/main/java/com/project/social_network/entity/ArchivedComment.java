@@ -0,0 +1,34 @@
+package com.project.social_network.entity;
+
+import com.project.social_network.entity.enums.EStatus;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Cold copy of a comment moved out of the comments table by the archival job.
+ */
+@Data
+@Entity
+@Table(name = "comments_archive",
+        indexes = @Index(name = "idx_comments_archive_post_id", columnList = "post_id"))
+public class ArchivedComment {
+
+    @Id
+    private Long id;
+    @Column(name = "post_id")
+    private Long postId;
+    private String username;
+    private Long userId;
+    @Column(columnDefinition = "text")
+    private String message;
+    @Enumerated(value = EnumType.STRING)
+    private EStatus status;
+    private LocalDateTime statusChangedDate;
+    private LocalDateTime createdDate;
+    private LocalDateTime archivedDate;
+
+    public ArchivedComment() {
+    }
+}
@@ -0,0 +1,41 @@
+package com.project.social_network.entity;
+
+import com.project.social_network.entity.enums.EStatus;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Cold copy of a post moved out of the posts table by the archival job.
+ */
+@Data
+@Entity
+@Table(name = "posts_archive",
+        indexes = @Index(name = "idx_posts_archive_user_id", columnList = "user_id"))
+public class ArchivedPost {
+
+    @Id
+    private Long id;
+    private String caption;
+    private Integer likes;
+    @Enumerated(value = EnumType.STRING)
+    private EStatus status;
+    private LocalDateTime statusChangedDate;
+    private Long revision;
+    private Integer commentCount;
+    @Column(name = "user_id")
+    private Long userId;
+    private LocalDateTime createdDate;
+    private LocalDateTime archivedDate;
+
+    @ElementCollection
+    @CollectionTable(name = "posts_archive_liked_users", joinColumns = @JoinColumn(name = "post_id"))
+    @Column(name = "liked_users")
+    private Set<String> likedUsers = new HashSet<>();
+
+    public ArchivedPost() {
+    }
+}
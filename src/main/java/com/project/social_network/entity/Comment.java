@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "comments")
+@Table(name = "comments",
+        indexes = @Index(name = "idx_comments_status_changed", columnList = "status, statusChangedDate"))
 public class Comment {
 
     @Id
@@ -16,6 +17,7 @@ public class Comment {
     private Long id;
 
     @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Post post;
 
     @Column(nullable = false)
@@ -28,10 +30,18 @@ public class Comment {
     private LocalDateTime createdDate;
     @Enumerated(value = EnumType.STRING)
     private EStatus status;
+    private LocalDateTime statusChangedDate;
 
     public Comment() {
     }
 
+    public void setStatus(EStatus status) {
+        if (this.status != status) {
+            this.statusChangedDate = LocalDateTime.now();
+        }
+        this.status = status;
+    }
+
     @PrePersist
     protected void onCreate() {
         this.createdDate = LocalDateTime.now();
@@ -1,29 +1,66 @@
 package com.project.social_network.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.project.social_network.entity.enums.EFriendshipState;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
+/**
+ * One row per unordered pair of users, stored as (lowUserId, highUserId) with
+ * lowUserId < highUserId. The unique key makes any pair check a single index probe,
+ * the composite indexes cover listing friends from either side.
+ */
 @Data
 @Entity
-@Table(name = "friends")
+@Table(name = "friendships",
+        uniqueConstraints = @UniqueConstraint(name = "uk_friendships_pair",
+                columnNames = {"low_user_id", "high_user_id"}),
+        indexes = {
+                @Index(name = "idx_friendships_low_state_high", columnList = "low_user_id, state, high_user_id"),
+                @Index(name = "idx_friendships_high_state_low", columnList = "high_user_id, state, low_user_id"),
+                @Index(name = "idx_friendships_recipient_state_created",
+                        columnList = "recipient_id, state, createdDate"),
+                @Index(name = "idx_friendships_requester_state_created",
+                        columnList = "requester_id, state, createdDate")
+        })
 public class Friend {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Integer id;
+    private Long id;
 
-    @OneToOne(cascade = CascadeType.ALL)
-    @JoinColumn(name = "first_user_id", referencedColumnName = "id")
-    private User firstUser;
+    @Column(name = "low_user_id", nullable = false, updatable = false)
+    private Long lowUserId;
 
-    @OneToOne(cascade = CascadeType.ALL)
-    @JoinColumn(name = "second_user_id", referencedColumnName = "id")
-    private User secondUser;
+    @Column(name = "high_user_id", nullable = false, updatable = false)
+    private Long highUserId;
 
-    private Boolean isAccepted;
+    @Column(name = "requester_id", nullable = false, updatable = false)
+    private Long requesterId;
+
+    // the other side of requesterId, kept so the pending inbox is a single index range
+    @Column(name = "recipient_id", updatable = false)
+    private Long recipientId;
+
+    @Enumerated(value = EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EFriendshipState state;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "low_user_id", insertable = false, updatable = false)
+    private User lowUser;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "high_user_id", insertable = false, updatable = false)
+    private User highUser;
 
     @JsonFormat(pattern = "yyyy-mm-dd HH:mm:ss")
     @Column(updatable = false)
@@ -33,6 +70,18 @@ public class Friend {
     public Friend() {
     }
 
+    public Friend(Long requesterId, Long recipientId) {
+        this.lowUserId = Math.min(requesterId, recipientId);
+        this.highUserId = Math.max(requesterId, recipientId);
+        this.requesterId = requesterId;
+        this.recipientId = recipientId;
+        this.state = EFriendshipState.PENDING;
+    }
+
+    public Long getOtherUserId(Long userId) {
+        return lowUserId.equals(userId) ? highUserId : lowUserId;
+    }
+
     @PrePersist
     protected void onCreate() {
         this.createdDate = LocalDateTime.now();
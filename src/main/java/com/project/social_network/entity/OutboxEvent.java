@@ -0,0 +1,36 @@
+package com.project.social_network.entity;
+
+import com.project.social_network.entity.enums.EEventType;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "outbox_events",
+        indexes = @Index(name = "idx_outbox_events_processed_id", columnList = "processed, id"))
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Enumerated(value = EnumType.STRING)
+    @Column(nullable = false, length = 32, updatable = false)
+    private EEventType type;
+    @Column(updatable = false)
+    private Long entityId;
+    @Column(updatable = false)
+    private Long actorId;
+    private boolean processed;
+    @Column(updatable = false)
+    private LocalDateTime createdDate;
+
+    public OutboxEvent() {
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdDate = LocalDateTime.now();
+    }
+}
@@ -3,6 +3,8 @@ package com.project.social_network.entity;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.project.social_network.entity.enums.EStatus;
 import lombok.Data;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -13,7 +15,12 @@ import java.util.Set;
 
 @Data
 @Entity
-@Table(name = "posts")
+@Table(name = "posts",
+        indexes = {
+                @Index(name = "idx_posts_status_changed", columnList = "status, statusChangedDate"),
+                @Index(name = "idx_posts_status_created", columnList = "status, createdDate"),
+                @Index(name = "idx_posts_user_created", columnList = "user_id, createdDate")
+        })
 public class Post {
 
     @Id
@@ -23,24 +30,47 @@ public class Post {
     private Integer likes;
     @Enumerated(value = EnumType.STRING)
     private EStatus status;
+    private LocalDateTime statusChangedDate;
+    // bumped on every change visible in PostDTO, keys the serialized-response cache; only ever
+    // incremented in SQL (PostRepository.incrementRevision), so concurrent writers cannot reuse a value
+    @Column(updatable = false)
+    private Long revision;
+    // active comments, maintained with PostRepository.addCommentCount only
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int commentCount;
 
     @Column
     @ElementCollection(targetClass = String.class)
+    @CollectionTable(name = "post_liked_users",
+            joinColumns = @JoinColumn(name = "post_id"),
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Set<String> likedUsers = new HashSet<>();
 
     @ManyToOne(fetch = FetchType.LAZY)
     private User user;
 
     @OneToMany(cascade = CascadeType.REFRESH, fetch = FetchType.EAGER, mappedBy = "post", orphanRemoval = true)
+    @Fetch(FetchMode.SUBSELECT)
     private List<Comment> comments = new ArrayList<>();
 
     @JsonFormat(pattern = "yyyy-mm-dd HH:mm:ss")
-    @Column(updatable = false)
+    @Column(updatable = false, nullable = false)
     private LocalDateTime createdDate;
 
     public Post() {
     }
 
+    public void setStatus(EStatus status) {
+        if (this.status != status) {
+            this.statusChangedDate = LocalDateTime.now();
+        }
+        this.status = status;
+    }
+
+    public long getRevisionOrZero() {
+        return revision == null ? 0 : revision;
+    }
+
     @PrePersist
     protected void onCreate() {
         this.createdDate = LocalDateTime.now();
@@ -0,0 +1,34 @@
+package com.project.social_network.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "refresh_tokens",
+        indexes = @Index(name = "idx_refresh_tokens_user_id", columnList = "userId"))
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false, unique = true, length = 64, updatable = false)
+    private String tokenHash;
+    @Column(nullable = false, updatable = false)
+    private Long userId;
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime expiryDate;
+    private boolean revoked;
+    @Column(updatable = false)
+    private LocalDateTime createdDate;
+
+    public RefreshToken() {
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdDate = LocalDateTime.now();
+    }
+}
@@ -32,6 +32,16 @@ public class User implements UserDetails {
     @Enumerated(value = EnumType.STRING)
     private EStatus status;
 
+    // maintained with UserRepository's increment queries only, never written from the entity
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int friendCount;
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int postCount;
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int sentRequestCount;
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int receivedRequestCount;
+
     @ElementCollection(targetClass = ERole.class)
     @CollectionTable(name = "user_role", joinColumns = @JoinColumn(name = "user_id"))
     private Set<ERole> roles = new HashSet<>();
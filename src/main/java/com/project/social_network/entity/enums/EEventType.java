@@ -0,0 +1,9 @@
+package com.project.social_network.entity.enums;
+
+public enum EEventType {
+    POST_CREATED,
+    POST_LIKED,
+    POST_UNLIKED,
+    COMMENT_CREATED,
+    FRIENDSHIP_ACCEPTED
+}
@@ -0,0 +1,6 @@
+package com.project.social_network.entity.enums;
+
+public enum EFriendshipState {
+    PENDING,
+    ACCEPTED
+}
@@ -0,0 +1,38 @@
+package com.project.social_network.events;
+
+import com.project.social_network.entity.enums.EEventType;
+
+/**
+ * Mutable slot of the event ring buffer. Instances are preallocated and reused, so
+ * listeners must copy what they need instead of keeping a reference after the callback.
+ */
+public class DomainEvent {
+
+    private long outboxId;
+    private EEventType type;
+    private Long entityId;
+    private Long actorId;
+
+    void set(long outboxId, EEventType type, Long entityId, Long actorId) {
+        this.outboxId = outboxId;
+        this.type = type;
+        this.entityId = entityId;
+        this.actorId = actorId;
+    }
+
+    public long getOutboxId() {
+        return outboxId;
+    }
+
+    public EEventType getType() {
+        return type;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public Long getActorId() {
+        return actorId;
+    }
+}
@@ -0,0 +1,151 @@
+package com.project.social_network.events;
+
+import com.project.social_network.entity.OutboxEvent;
+import com.project.social_network.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single consumer thread of the event ring buffer. Drains events in batches, passes each batch
+ * to every {@link DomainEventListener} and marks the batch processed in the outbox once all of
+ * them succeeded; a failed batch stays unprocessed and is replayed.
+ * Unprocessed outbox rows are replayed at startup and periodically, which covers restarts
+ * and events that did not fit into the buffer.
+ */
+@Lazy(false)
+@Component
+public class DomainEventDispatcher implements DisposableBean {
+
+    public static final Logger LOG = LoggerFactory.getLogger(DomainEventDispatcher.class);
+
+    private static final int REPLAY_PAGE_SIZE = 1000;
+
+    private final EventRingBuffer ringBuffer;
+    private final DomainEventPublisher publisher;
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<DomainEventListener> listeners;
+    private final int batchSize;
+    private final long replayDelaySeconds;
+    private final Thread worker;
+    private final List<DomainEvent> batch;
+    private final List<Long> outboxIds;
+    private volatile boolean running = true;
+
+    @Autowired
+    public DomainEventDispatcher(EventRingBuffer ringBuffer,
+                                 DomainEventPublisher publisher,
+                                 OutboxEventRepository outboxEventRepository,
+                                 List<DomainEventListener> listeners,
+                                 @Value("${events.batch-size:256}") int batchSize,
+                                 @Value("${events.replay-delay-seconds:30}") long replayDelaySeconds) {
+        this.ringBuffer = ringBuffer;
+        this.publisher = publisher;
+        this.outboxEventRepository = outboxEventRepository;
+        this.listeners = listeners;
+        this.batchSize = batchSize;
+        this.replayDelaySeconds = replayDelaySeconds;
+        this.batch = new ArrayList<>(batchSize);
+        this.outboxIds = new ArrayList<>(batchSize);
+        this.worker = new Thread(this::run, "domain-event-dispatcher");
+        this.worker.setDaemon(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        worker.start();
+        replay(LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${events.replay-interval-ms:30000}")
+    public void replayStale() {
+        replay(LocalDateTime.now().minusSeconds(replayDelaySeconds));
+    }
+
+    @Scheduled(fixedDelayString = "${events.cleanup-interval-ms:3600000}")
+    public void deleteProcessed() {
+        int deleted = outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(1));
+        LOG.debug("Deleted {} processed outbox events", deleted);
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    private void replay(LocalDateTime before) {
+        List<OutboxEvent> pending = outboxEventRepository
+                .findByProcessedFalseAndCreatedDateBeforeOrderByIdAsc(before, PageRequest.of(0, REPLAY_PAGE_SIZE));
+        if (!pending.isEmpty()) {
+            LOG.info("Replaying {} outbox events", pending.size());
+        }
+        for (OutboxEvent outboxEvent : pending) {
+            publisher.enqueue(outboxEvent);
+        }
+    }
+
+    private void run() {
+        long idleNanos = TimeUnit.MICROSECONDS.toNanos(50);
+        while (running) {
+            if (dispatchBatch() == 0) {
+                LockSupport.parkNanos(idleNanos);
+                idleNanos = Math.min(idleNanos * 2, TimeUnit.MILLISECONDS.toNanos(10));
+            } else {
+                idleNanos = TimeUnit.MICROSECONDS.toNanos(50);
+            }
+        }
+    }
+
+    /**
+     * Dispatches one batch from the ring buffer on the calling thread.
+     *
+     * @return the number of events dispatched
+     */
+    int dispatchBatch() {
+        int count = ringBuffer.drain(batch, batchSize);
+        if (count == 0) {
+            return 0;
+        }
+
+        boolean failed = false;
+        for (DomainEventListener listener : listeners) {
+            try {
+                listener.onEvents(batch);
+            } catch (Exception ex) {
+                failed = true;
+                LOG.error("Event listener {} failed, batch left for replay: {}",
+                        listener.getClass().getSimpleName(), ex.getMessage());
+            }
+        }
+        for (DomainEvent event : batch) {
+            outboxIds.add(event.getOutboxId());
+        }
+        if (!failed) {
+            try {
+                outboxEventRepository.markProcessed(outboxIds);
+            } catch (Exception ex) {
+                LOG.error("Could not mark outbox events processed: {}", ex.getMessage());
+            }
+        }
+        ringBuffer.release(count);
+        publisher.dispatched(outboxIds);
+        batch.clear();
+        outboxIds.clear();
+        return count;
+    }
+}
@@ -0,0 +1,14 @@
+package com.project.social_network.events;
+
+import java.util.List;
+
+/**
+ * Receives committed domain events in batches on the dispatcher thread.
+ * Delivery is at-least-once: a batch is marked processed only after every listener accepted it,
+ * otherwise it is replayed to all of them, so an event may be seen twice. Listeners whose effects
+ * are not idempotent skip repeats by outbox id, see {@link RecentEventIds}.
+ */
+public interface DomainEventListener {
+
+    void onEvents(List<DomainEvent> events);
+}
@@ -0,0 +1,73 @@
+package com.project.social_network.events;
+
+import com.project.social_network.entity.OutboxEvent;
+import com.project.social_network.entity.enums.EEventType;
+import com.project.social_network.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes every event to the outbox table inside the caller's transaction and hands it to
+ * the ring buffer only after that transaction commits, so listeners never see rolled back changes.
+ * Outbox ids stay tracked from enqueue until the dispatcher is done with them, so a replay does not
+ * put an event into the buffer a second time while it is still waiting there.
+ */
+@Component
+public class DomainEventPublisher {
+
+    public static final Logger LOG = LoggerFactory.getLogger(DomainEventPublisher.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventRingBuffer ringBuffer;
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public DomainEventPublisher(OutboxEventRepository outboxEventRepository,
+                                EventRingBuffer ringBuffer) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.ringBuffer = ringBuffer;
+    }
+
+    public void publish(EEventType type, Long entityId, Long actorId) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setType(type);
+        outboxEvent.setEntityId(entityId);
+        outboxEvent.setActorId(actorId);
+        outboxEvent.setProcessed(false);
+        outboxEventRepository.save(outboxEvent);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(outboxEvent);
+                }
+            });
+        } else {
+            enqueue(outboxEvent);
+        }
+    }
+
+    void enqueue(OutboxEvent outboxEvent) {
+        if (!queued.add(outboxEvent.getId())) {
+            return;
+        }
+        if (!ringBuffer.tryPublish(outboxEvent.getId(), outboxEvent.getType(),
+                outboxEvent.getEntityId(), outboxEvent.getActorId())) {
+            queued.remove(outboxEvent.getId());
+            LOG.warn("Event buffer full, event {} left for outbox replay", outboxEvent.getId());
+        }
+    }
+
+    void dispatched(Collection<Long> outboxIds) {
+        queued.removeAll(outboxIds);
+    }
+}
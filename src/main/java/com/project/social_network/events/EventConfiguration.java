@@ -0,0 +1,14 @@
+package com.project.social_network.events;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EventConfiguration {
+
+    @Bean
+    public EventRingBuffer eventRingBuffer(@Value("${events.buffer-size:4096}") int bufferSize) {
+        return new EventRingBuffer(bufferSize);
+    }
+}
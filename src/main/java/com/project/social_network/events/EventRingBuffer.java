@@ -0,0 +1,83 @@
+package com.project.social_network.events;
+
+import com.project.social_network.entity.enums.EEventType;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Multi-producer, single-consumer ring of preallocated {@link DomainEvent} slots.
+ * Producers claim a sequence with a CAS and publish the slot by writing its sequence;
+ * the consumer drains contiguous published slots and then releases them in one step.
+ */
+public class EventRingBuffer {
+
+    private final DomainEvent[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private volatile long consumed = -1;
+
+    public EventRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1) << 1);
+        this.slots = new DomainEvent[size];
+        this.published = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new DomainEvent();
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * @return false when the buffer is full; the event then stays in the outbox for replay
+     */
+    public boolean tryPublish(long outboxId, EEventType type, Long entityId, Long actorId) {
+        long sequence;
+        while (true) {
+            long current = claimed.get();
+            sequence = current + 1;
+            if (sequence - consumed > slots.length) {
+                return false;
+            }
+            if (claimed.compareAndSet(current, sequence)) {
+                break;
+            }
+        }
+        int index = (int) (sequence & mask);
+        slots[index].set(outboxId, type, entityId, actorId);
+        published.lazySet(index, sequence);
+        return true;
+    }
+
+    /**
+     * Adds up to max published events to the batch; they stay valid until {@link #release}.
+     */
+    public int drain(List<DomainEvent> batch, int max) {
+        long next = consumed + 1;
+        int count = 0;
+        while (count < max) {
+            int index = (int) (next & mask);
+            if (published.get(index) != next) {
+                break;
+            }
+            batch.add(slots[index]);
+            next++;
+            count++;
+        }
+        return count;
+    }
+
+    public void release(int count) {
+        consumed = consumed + count;
+    }
+
+    public int size() {
+        return (int) (claimed.get() - consumed);
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
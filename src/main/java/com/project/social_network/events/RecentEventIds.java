@@ -0,0 +1,30 @@
+package com.project.social_network.events;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded set of the most recently applied outbox ids, for listeners whose effects are not
+ * idempotent. Only the dispatcher thread calls listeners, so no synchronization is needed.
+ */
+public class RecentEventIds {
+
+    private final Map<Long, Boolean> ids;
+
+    public RecentEventIds(int capacity) {
+        this.ids = new LinkedHashMap<Long, Boolean>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public boolean contains(long outboxId) {
+        return ids.containsKey(outboxId);
+    }
+
+    public void add(long outboxId) {
+        ids.put(outboxId, Boolean.TRUE);
+    }
+}
@@ -2,18 +2,27 @@ package com.project.social_network.facade;
 
 import com.project.social_network.dto.PostDTO;
 import com.project.social_network.entity.Post;
+import com.project.social_network.fields.FieldSelection;
 import org.springframework.stereotype.Component;
 
 @Component
 public class PostFacade {
 
     public PostDTO postToPostDTO(Post post) {
+        FieldSelection fields = FieldSelection.current();
         PostDTO postDTO = new PostDTO();
-        postDTO.setUsername(post.getUser().getUsername());
+        // owner and liked users are lazy, only load them when they are written out
+        if (fields.includes("username")) {
+            postDTO.setUsername(post.getUser().getUsername());
+        }
         postDTO.setId(post.getId());
         postDTO.setCaption(post.getCaption());
         postDTO.setLikes(post.getLikes());
-        postDTO.setUsersLiked(post.getLikedUsers());
+        postDTO.setCommentCount(post.getCommentCount());
+        postDTO.setCreatedDate(post.getCreatedDate());
+        if (fields.includes("usersLiked")) {
+            postDTO.setUsersLiked(post.getLikedUsers());
+        }
 
         return postDTO;
     }
@@ -0,0 +1,69 @@
+package com.project.social_network.fields;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Fields requested with the fields= query parameter, e.g. ?fields=id,username,caption.
+ * When the parameter is absent every field is selected.
+ */
+public final class FieldSelection {
+
+    public static final String PARAMETER = "fields";
+
+    private static final FieldSelection ALL = new FieldSelection(Collections.emptySet());
+    private static final String ATTRIBUTE = FieldSelection.class.getName();
+
+    private final Set<String> fields;
+
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static FieldSelection parse(String value) {
+        if (value == null) {
+            return ALL;
+        }
+        Set<String> fields = new LinkedHashSet<>();
+        for (String field : value.split(",")) {
+            String trimmed = field.trim();
+            if (!trimmed.isEmpty()) {
+                fields.add(trimmed);
+            }
+        }
+        return fields.isEmpty() ? ALL : new FieldSelection(Collections.unmodifiableSet(fields));
+    }
+
+    /**
+     * Selection of the request bound to the current thread, or all fields outside of a request.
+     */
+    public static FieldSelection current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return ALL;
+        }
+        FieldSelection selection = (FieldSelection) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (selection == null) {
+            selection = parse(((ServletRequestAttributes) attributes).getRequest().getParameter(PARAMETER));
+            attributes.setAttribute(ATTRIBUTE, selection, RequestAttributes.SCOPE_REQUEST);
+        }
+        return selection;
+    }
+
+    public boolean isAll() {
+        return fields.isEmpty();
+    }
+
+    public boolean includes(String field) {
+        return fields.isEmpty() || fields.contains(field);
+    }
+
+    public Set<String> getFields() {
+        return fields;
+    }
+}
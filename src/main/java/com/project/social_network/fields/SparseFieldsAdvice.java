@@ -0,0 +1,35 @@
+package com.project.social_network.fields;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * Applies the fields= selection to every DTO annotated with @JsonFilter(SPARSE_FIELDS_FILTER).
+ * Other objects in the response, such as wrappers and messages, are written unchanged.
+ */
+@ControllerAdvice
+public class SparseFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    public static final String SPARSE_FIELDS_FILTER = "sparseFields";
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer,
+                                           MediaType contentType,
+                                           MethodParameter returnType,
+                                           ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        FieldSelection selection = FieldSelection.current();
+        if (selection.isAll()) {
+            return;
+        }
+        bodyContainer.setFilters(new SimpleFilterProvider()
+                .addFilter(SPARSE_FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(selection.getFields())));
+    }
+}
@@ -0,0 +1,20 @@
+package com.project.social_network.fields;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SparseFieldsConfiguration {
+
+    /**
+     * Filtered DTOs need a filter registered even when no fields= parameter is given.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .addFilter(SparseFieldsAdvice.SPARSE_FIELDS_FILTER, SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
@@ -0,0 +1,26 @@
+package com.project.social_network.invalidation;
+
+public enum ECacheRegion {
+    USER('U'),
+    POST('P'),
+    FRIENDSHIP('F');
+
+    private final char code;
+
+    ECacheRegion(char code) {
+        this.code = code;
+    }
+
+    public char getCode() {
+        return code;
+    }
+
+    public static ECacheRegion fromCode(char code) {
+        for (ECacheRegion region : values()) {
+            if (region.code == code) {
+                return region;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.project.social_network.invalidation;
+
+import lombok.Data;
+
+/**
+ * Invalidation of one cached entity. Version 0 means the entity is not versioned and the
+ * invalidation always applies; otherwise it only applies if no newer version was seen.
+ * Encoded as region:id:version, e.g. P:42:7.
+ */
+@Data
+public class Invalidation {
+
+    private final ECacheRegion region;
+    private final long id;
+    private final long version;
+
+    public String encode() {
+        return region.getCode() + ":" + id + ":" + version;
+    }
+
+    public static Invalidation decode(String value) {
+        String[] parts = value.split(":");
+        if (parts.length != 3 || parts[0].length() != 1) {
+            return null;
+        }
+        ECacheRegion region = ECacheRegion.fromCode(parts[0].charAt(0));
+        if (region == null) {
+            return null;
+        }
+        try {
+            return new Invalidation(region, Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.project.social_network.invalidation;
+
+/**
+ * A local cache that drops entries when another node changes the underlying entity.
+ */
+public interface InvalidationHandler {
+
+    ECacheRegion getRegion();
+
+    void evict(long id, long version);
+
+    /**
+     * Called after the notification channel was interrupted, since invalidations may have been missed.
+     */
+    void evictAll();
+}
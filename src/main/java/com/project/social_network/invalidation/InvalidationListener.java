@@ -0,0 +1,193 @@
+package com.project.social_network.invalidation;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Receives invalidations published by other nodes and applies them to the local caches.
+ *
+ * A dedicated connection is held for LISTEN. Notifications are not durable, so after the
+ * connection is lost every cache is cleared once the listener reconnects. Versioned
+ * invalidations that arrive out of order are dropped when a newer version of the same entity
+ * was already applied.
+ */
+@Lazy(false)
+@Component
+public class InvalidationListener implements DisposableBean {
+
+    public static final Logger LOG = LoggerFactory.getLogger(InvalidationListener.class);
+
+    private final DataSource dataSource;
+    private final InvalidationPublisher publisher;
+    private final Map<ECacheRegion, InvalidationHandler> handlers = new EnumMap<>(ECacheRegion.class);
+    private final Map<ECacheRegion, VersionTracker> versions = new EnumMap<>(ECacheRegion.class);
+    private final boolean enabled;
+    private final int pollTimeoutMs;
+    private final long reconnectDelayMs;
+    private final Thread worker;
+    private volatile boolean running = true;
+    private volatile Connection connection;
+
+    @Autowired
+    public InvalidationListener(DataSource dataSource,
+                                InvalidationPublisher publisher,
+                                List<InvalidationHandler> handlers,
+                                @Value("${invalidation.enabled:true}") boolean enabled,
+                                @Value("${invalidation.poll-timeout-ms:500}") int pollTimeoutMs,
+                                @Value("${invalidation.reconnect-delay-ms:5000}") long reconnectDelayMs,
+                                @Value("${invalidation.tracked-versions:100000}") int trackedVersions) {
+        this.dataSource = dataSource;
+        this.publisher = publisher;
+        for (InvalidationHandler handler : handlers) {
+            this.handlers.put(handler.getRegion(), handler);
+        }
+        for (ECacheRegion region : ECacheRegion.values()) {
+            this.versions.put(region, new VersionTracker(trackedVersions));
+        }
+        this.enabled = enabled;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+        this.worker = new Thread(this::run, "cache-invalidation-listener");
+        this.worker.setDaemon(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            worker.start();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        closeQuietly(connection);
+        worker.interrupt();
+    }
+
+    private void run() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection listenConnection = dataSource.getConnection()) {
+                connection = listenConnection;
+                listenConnection.setAutoCommit(true);
+                try (Statement statement = listenConnection.createStatement()) {
+                    statement.execute("LISTEN " + publisher.getChannel());
+                }
+                if (reconnect) {
+                    LOG.info("Reconnected cache invalidation listener, clearing local caches");
+                    invalidateAll();
+                }
+                PGConnection pgConnection = listenConnection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException ex) {
+                if (!running) {
+                    return;
+                }
+                LOG.warn("Cache invalidation listener lost its connection: {}", ex.getMessage());
+                reconnect = true;
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    void apply(String payload) {
+        int separator = payload.indexOf(';');
+        if (separator < 0 || payload.substring(0, separator).equals(publisher.getNodeId())) {
+            return;
+        }
+        for (String item : payload.substring(separator + 1).split(",")) {
+            Invalidation invalidation = Invalidation.decode(item);
+            if (invalidation == null) {
+                continue;
+            }
+            InvalidationHandler handler = handlers.get(invalidation.getRegion());
+            if (handler == null) {
+                continue;
+            }
+            if (invalidation.getVersion() != 0
+                    && !versions.get(invalidation.getRegion()).advance(invalidation.getId(), invalidation.getVersion())) {
+                continue;
+            }
+            try {
+                handler.evict(invalidation.getId(), invalidation.getVersion());
+            } catch (Exception ex) {
+                LOG.error("Invalidation handler for {} failed: {}", invalidation.getRegion(), ex.getMessage());
+            }
+        }
+    }
+
+    private void invalidateAll() {
+        for (InvalidationHandler handler : handlers.values()) {
+            handler.evictAll();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // shutting down anyway
+        }
+    }
+
+    /**
+     * Highest version applied per entity id, bounded by evicting the least recently used ids.
+     * Only used from the listener thread.
+     */
+    private static final class VersionTracker extends LinkedHashMap<Long, Long> {
+
+        private final int maxEntries;
+
+        VersionTracker(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        boolean advance(long id, long version) {
+            Long seen = get(id);
+            if (seen != null && seen >= version) {
+                return false;
+            }
+            put(id, version);
+            return true;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
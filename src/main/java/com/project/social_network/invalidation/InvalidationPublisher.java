@@ -0,0 +1,113 @@
+package com.project.social_network.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Sends cache invalidations to the other nodes through Postgres NOTIFY. Invalidations are queued
+ * after the caller's transaction commits and flushed in batches: duplicates within a batch are
+ * collapsed to the highest version and each NOTIFY carries as many as fit into its payload.
+ * Payload format: nodeId;P:42:7,F:3:0,...
+ */
+@Lazy(false)
+@Component
+public class InvalidationPublisher {
+
+    public static final Logger LOG = LoggerFactory.getLogger(InvalidationPublisher.class);
+
+    // Postgres limits a notification payload to 8000 bytes
+    static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String channel;
+    private final boolean enabled;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentLinkedQueue<Invalidation> pending = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    public InvalidationPublisher(JdbcTemplate jdbcTemplate,
+                                 @Value("${invalidation.channel:cache_invalidation}") String channel,
+                                 @Value("${invalidation.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.channel = channel;
+        this.enabled = enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void invalidate(ECacheRegion region, Long id, long version) {
+        if (!enabled || id == null) {
+            return;
+        }
+        Invalidation invalidation = new Invalidation(region, id, version);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.add(invalidation);
+                }
+            });
+        } else {
+            pending.add(invalidation);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${invalidation.flush-interval-ms:20}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, Invalidation> batch = new LinkedHashMap<>();
+        Invalidation invalidation;
+        while ((invalidation = pending.poll()) != null) {
+            String key = invalidation.getRegion().getCode() + ":" + invalidation.getId();
+            Invalidation previous = batch.get(key);
+            if (previous == null || previous.getVersion() < invalidation.getVersion()) {
+                batch.put(key, invalidation);
+            }
+        }
+
+        StringBuilder payload = new StringBuilder(nodeId).append(';');
+        int header = payload.length();
+        for (Invalidation item : batch.values()) {
+            String encoded = item.encode();
+            if (payload.length() + encoded.length() + 1 > MAX_PAYLOAD_LENGTH) {
+                notify(payload.toString());
+                payload.setLength(header);
+            }
+            if (payload.length() > header) {
+                payload.append(',');
+            }
+            payload.append(encoded);
+        }
+        notify(payload.toString());
+    }
+
+    private void notify(String payload) {
+        try {
+            jdbcTemplate.query("select pg_notify(?, ?)", (ResultSetExtractor<Void>) rs -> null, channel, payload);
+        } catch (Exception ex) {
+            LOG.warn("Could not publish cache invalidations: {}", ex.getMessage());
+        }
+    }
+}
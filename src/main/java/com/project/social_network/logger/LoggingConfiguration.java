@@ -1,5 +1,6 @@
 package com.project.social_network.logger;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -10,4 +11,17 @@ public class LoggingConfiguration {
     public RequestAndResponseLoggingFilter requestResponseLoggingFilter() {
         return new RequestAndResponseLoggingFilter();
     }
-}
\ No newline at end of file
+
+    @Bean
+    public SlowRequestBuffer slowRequestBuffer(@Value("${slow-requests.buffer-size:256}") int bufferSize) {
+        return new SlowRequestBuffer(bufferSize);
+    }
+
+    @Bean
+    public SlowRequestSampler slowRequestSampler(SlowRequestBuffer slowRequestBuffer,
+                                                 @Value("${slow-requests.threshold-ms:500}") long thresholdMillis,
+                                                 @Value("${slow-requests.sampling-interval-ms:50}") long samplingIntervalMillis,
+                                                 @Value("${slow-requests.max-stack-samples:20}") int maxStackSamples) {
+        return new SlowRequestSampler(slowRequestBuffer, thresholdMillis, samplingIntervalMillis, maxStackSamples);
+    }
+}
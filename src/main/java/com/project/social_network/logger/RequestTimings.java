@@ -0,0 +1,122 @@
+package com.project.social_network.logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Timing breakdown of the request running on the current thread. Filled in by
+ * {@link SlowRequestSampler}, {@link TimingAspect} and the JWT filter; all values in nanoseconds.
+ * An async request is bound to each thread that works on it in turn, the sampler follows the
+ * thread it is currently bound to.
+ */
+public class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos;
+    private volatile Thread thread;
+    private final int maxStackSamples;
+    private final List<String> stackSamples = Collections.synchronizedList(new ArrayList<>());
+    private long authNanos;
+    private long serviceNanos;
+    private long dbNanos;
+    private long serializationStartNanos;
+    private int serviceDepth;
+
+    RequestTimings(long startNanos, int maxStackSamples) {
+        this.startNanos = startNanos;
+        this.maxStackSamples = maxStackSamples;
+    }
+
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes timings the current thread's request and returns the previous one for {@link #unbind}.
+     */
+    public static RequestTimings bind(RequestTimings timings) {
+        RequestTimings previous = CURRENT.get();
+        if (timings == null) {
+            CURRENT.remove();
+        } else {
+            timings.thread = Thread.currentThread();
+            CURRENT.set(timings);
+        }
+        return previous;
+    }
+
+    public static void unbind(RequestTimings timings, RequestTimings previous) {
+        // another thread may have taken the request over already
+        if (timings != null && timings.thread == Thread.currentThread()) {
+            timings.thread = null;
+        }
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public void addAuthNanos(long nanos) {
+        authNanos += nanos;
+    }
+
+    boolean enterService() {
+        return serviceDepth++ == 0;
+    }
+
+    void exitService(boolean outermost, long nanos) {
+        serviceDepth--;
+        if (outermost) {
+            serviceNanos += nanos;
+        }
+    }
+
+    void addDbNanos(long nanos) {
+        dbNanos += nanos;
+    }
+
+    void markSerializationStart(long nanos) {
+        if (serializationStartNanos == 0) {
+            serializationStartNanos = nanos;
+        }
+    }
+
+    void addStackSample(String sample) {
+        if (stackSamples.size() < maxStackSamples) {
+            stackSamples.add(sample);
+        }
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    Thread getThread() {
+        return thread;
+    }
+
+    long getAuthNanos() {
+        return authNanos;
+    }
+
+    long getServiceNanos() {
+        return serviceNanos;
+    }
+
+    long getDbNanos() {
+        return dbNanos;
+    }
+
+    long getSerializationStartNanos() {
+        return serializationStartNanos;
+    }
+
+    List<String> getStackSamples() {
+        synchronized (stackSamples) {
+            return new ArrayList<>(stackSamples);
+        }
+    }
+}
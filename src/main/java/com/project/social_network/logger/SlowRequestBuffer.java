@@ -0,0 +1,41 @@
+package com.project.social_network.logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring of the most recent slow requests. Writers claim a slot with one
+ * atomic increment and overwrite whatever was there; readers take a best-effort snapshot.
+ */
+public class SlowRequestBuffer {
+
+    private final AtomicReferenceArray<SlowRequestRecord> records;
+    private final AtomicLong written = new AtomicLong();
+
+    public SlowRequestBuffer(int capacity) {
+        this.records = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(SlowRequestRecord record) {
+        long index = written.getAndIncrement();
+        records.set((int) (index % records.length()), record);
+    }
+
+    /**
+     * @return up to limit records, newest first
+     */
+    public List<SlowRequestRecord> latest(int limit) {
+        long end = written.get();
+        long start = Math.max(0, end - Math.min(limit, records.length()));
+        List<SlowRequestRecord> result = new ArrayList<>();
+        for (long i = end - 1; i >= start; i--) {
+            SlowRequestRecord record = records.get((int) (i % records.length()));
+            if (record != null) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+}
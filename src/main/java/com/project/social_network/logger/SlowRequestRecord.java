@@ -0,0 +1,23 @@
+package com.project.social_network.logger;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class SlowRequestRecord {
+
+    private final LocalDateTime timestamp;
+    private final String route;
+    private final int status;
+    private final double totalMillis;
+    private final double authMillis;
+    private final double serviceMillis;
+    private final double dbMillis;
+    private final double serializationMillis;
+    private final Integer sqlCount;
+    private final List<String> stackSamples;
+}
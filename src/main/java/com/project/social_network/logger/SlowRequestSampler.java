@@ -0,0 +1,192 @@
+package com.project.social_network.logger;
+
+import com.project.social_network.sql.SqlBudgetFilter;
+import com.project.social_network.sql.SqlStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records requests slower than the threshold into a {@link SlowRequestBuffer}. A background thread
+ * periodically takes stack samples of in-flight requests that are already over the threshold, so
+ * fast requests only pay for a few clock reads and one set add and remove. Async requests are
+ * recorded when they complete, with samples of whichever thread was working on them.
+ */
+public class SlowRequestSampler extends OncePerRequestFilter implements Ordered, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SlowRequestSampler.class);
+
+    private static final int MAX_STACK_DEPTH = 30;
+    private static final String TIMINGS_ATTRIBUTE = SlowRequestSampler.class.getName() + ".timings";
+
+    private final SlowRequestBuffer buffer;
+    private final long thresholdNanos;
+    private final int maxStackSamples;
+    private final Set<RequestTimings> inFlight = ConcurrentHashMap.newKeySet();
+    private final Thread samplerThread;
+    private volatile boolean running = true;
+
+    public SlowRequestSampler(SlowRequestBuffer buffer, long thresholdMillis, long samplingIntervalMillis,
+                              int maxStackSamples) {
+        this.buffer = buffer;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.maxStackSamples = maxStackSamples;
+        this.samplerThread = new Thread(() -> sampleLoop(samplingIntervalMillis), "slow-request-sampler");
+        this.samplerThread.setDaemon(true);
+        this.samplerThread.start();
+    }
+
+    /**
+     * Runs ahead of the security filter chain so authentication time is part of the breakdown.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        samplerThread.interrupt();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            RequestTimings timings = (RequestTimings) request.getAttribute(TIMINGS_ATTRIBUTE);
+            RequestTimings previous = RequestTimings.bind(timings);
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                RequestTimings.unbind(timings, previous);
+            }
+            return;
+        }
+
+        RequestTimings timings = new RequestTimings(System.nanoTime(), maxStackSamples);
+        request.setAttribute(TIMINGS_ATTRIBUTE, timings);
+        RequestTimings previous = RequestTimings.bind(timings);
+        inFlight.add(timings);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestTimings.unbind(timings, previous);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(request, response, timings));
+            } else {
+                finish(request, response, timings);
+            }
+        }
+    }
+
+    private void finish(HttpServletRequest request, HttpServletResponse response, RequestTimings timings) {
+        inFlight.remove(timings);
+        long end = System.nanoTime();
+        if (end - timings.getStartNanos() >= thresholdNanos) {
+            record(request, response, timings, end);
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, RequestTimings timings, long end) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+        SqlStatistics sqlStatistics = (SqlStatistics) request.getAttribute(SqlBudgetFilter.STATISTICS_ATTRIBUTE);
+        long serializationNanos = timings.getSerializationStartNanos() == 0
+                ? 0 : end - timings.getSerializationStartNanos();
+
+        SlowRequestRecord record = new SlowRequestRecord(
+                LocalDateTime.now(),
+                route,
+                response.getStatus(),
+                toMillis(end - timings.getStartNanos()),
+                toMillis(timings.getAuthNanos()),
+                toMillis(timings.getServiceNanos()),
+                toMillis(timings.getDbNanos()),
+                toMillis(serializationNanos),
+                sqlStatistics != null ? sqlStatistics.getCount() : null,
+                timings.getStackSamples());
+        buffer.add(record);
+        LOG.warn("Slow request {} took {} ms", route, record.getTotalMillis());
+    }
+
+    private void sampleLoop(long samplingIntervalMillis) {
+        while (running) {
+            try {
+                Thread.sleep(samplingIntervalMillis);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            long now = System.nanoTime();
+            for (RequestTimings timings : inFlight) {
+                Thread thread = timings.getThread();
+                if (thread != null && now - timings.getStartNanos() >= thresholdNanos) {
+                    timings.addStackSample(formatStack(thread.getStackTrace()));
+                }
+            }
+        }
+    }
+
+    private static String formatStack(StackTraceElement[] stack) {
+        StringBuilder sample = new StringBuilder();
+        for (int i = 0; i < Math.min(stack.length, MAX_STACK_DEPTH); i++) {
+            sample.append(stack[i]).append('\n');
+        }
+        return sample.toString();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private class CompletionListener implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final RequestTimings timings;
+
+        private CompletionListener(HttpServletRequest request, HttpServletResponse response, RequestTimings timings) {
+            this.request = request;
+            this.response = response;
+            this.timings = timings;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            finish(request, response, timings);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
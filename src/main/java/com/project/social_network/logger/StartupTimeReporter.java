@@ -0,0 +1,37 @@
+package com.project.social_network.logger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Logs the time from JVM start until the application is ready to serve requests.
+ * With startup.exit-on-ready=true the application exits right after, which is used
+ * for the class-data-sharing training run.
+ */
+@Component
+public class StartupTimeReporter {
+
+    public static final Logger LOG = LoggerFactory.getLogger(StartupTimeReporter.class);
+
+    @Value("${startup.exit-on-ready:false}")
+    private boolean exitOnReady;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        long uptime = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        LOG.info("Application ready in {} ms since JVM start", uptime);
+
+        if (exitOnReady) {
+            ApplicationContext context = event.getApplicationContext();
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.project.social_network.logger;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds service and repository time to the current request's {@link RequestTimings}.
+ * Nested service calls are only counted once, at the outermost call.
+ */
+@Aspect
+@Component
+public class TimingAspect {
+
+    @Around("execution(public * com.project.social_network.services..*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            return joinPoint.proceed();
+        }
+        boolean outermost = timings.enterService();
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timings.exitService(outermost, System.nanoTime() - start);
+        }
+    }
+
+    // by type rather than package, so inherited methods such as save and findById are timed too
+    @Around("within(org.springframework.data.repository.Repository+)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timings.addDbNanos(System.nanoTime() - start);
+        }
+    }
+}
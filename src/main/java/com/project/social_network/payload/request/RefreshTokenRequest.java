@@ -0,0 +1,12 @@
+package com.project.social_network.payload.request;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+
+@Data
+public class RefreshTokenRequest {
+
+    @NotEmpty(message = "Refresh token cannot be empty")
+    private String refreshToken;
+}
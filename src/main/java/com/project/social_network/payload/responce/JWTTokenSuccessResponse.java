@@ -9,4 +9,5 @@ public class JWTTokenSuccessResponse {
 
     private boolean success;
     private String token;
+    private String refreshToken;
 }
@@ -0,0 +1,13 @@
+package com.project.social_network.ratelimit;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RateLimitConfiguration {
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimiter rateLimiter) {
+        return new RateLimitFilter(rateLimiter);
+    }
+}
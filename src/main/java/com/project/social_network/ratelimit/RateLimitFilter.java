@@ -0,0 +1,90 @@
+package com.project.social_network.ratelimit;
+
+import com.google.gson.Gson;
+import com.project.social_network.payload.responce.MessageResponse;
+import com.project.social_network.security.SecurityConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects write requests with 429 once the caller's bucket for that route is empty.
+ * Authenticated callers are keyed by username, anonymous ones (sign up) by remote address.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final Logger LOG = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final String REJECTED_BODY = new Gson().toJson(new MessageResponse("Too many requests"));
+
+    private static final List<String> LIMITED_ROUTES = Arrays.asList(
+            "/posts/*/*/like",
+            "/comment/*/create",
+            "/users/*/send-request",
+            "/auth/signup"
+    );
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || matchRoute(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String route = matchRoute(request);
+        long waitNanos = rateLimiter.tryAcquire(route, callerKey(request));
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        LOG.warn("Rate limit exceeded on {} by {}", route, callerKey(request));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(SecurityConstants.CONTENT_TYPE);
+        response.getWriter().println(REJECTED_BODY);
+    }
+
+    private String matchRoute(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String route : LIMITED_ROUTES) {
+            if (pathMatcher.match(route, path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static String callerKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !"anonymousUser".equals(authentication.getName())) {
+            return authentication.getName();
+        }
+        return request.getRemoteAddr();
+    }
+}
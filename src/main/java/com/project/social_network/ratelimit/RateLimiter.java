@@ -0,0 +1,61 @@
+package com.project.social_network.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps one token bucket per (route, user) in a striped concurrent map.
+ * Buckets that have fully refilled and stayed untouched are evicted periodically.
+ */
+@Lazy(false)
+@Component
+public class RateLimiter {
+
+    public static final Logger LOG = LoggerFactory.getLogger(RateLimiter.class);
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets;
+    private final int capacity;
+    private final double refillPerSecond;
+    private final long idleNanos;
+
+    public RateLimiter(@Value("${ratelimit.capacity:20}") int capacity,
+                       @Value("${ratelimit.refill-per-second:5}") double refillPerSecond,
+                       @Value("${ratelimit.idle-eviction-seconds:300}") long idleSeconds) {
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+        this.buckets = new ConcurrentHashMap<>(1024, 0.75f, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * @return 0 when the call is admitted, otherwise nanoseconds the caller should wait
+     */
+    public long tryAcquire(String route, String key) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(route + '|' + key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(route + '|' + key,
+                    k -> new TokenBucket(capacity, refillPerSecond, now));
+        }
+        return bucket.tryConsume(now);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    @Scheduled(fixedDelayString = "${ratelimit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.entrySet().removeIf(e -> e.getValue().isIdle(now, idleNanos));
+        LOG.debug("Evicted {} idle rate limit buckets", before - buckets.size());
+    }
+}
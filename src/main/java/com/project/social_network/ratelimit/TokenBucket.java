@@ -0,0 +1,49 @@
+package com.project.social_network.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket kept as a single "theoretical arrival time" (GCRA).
+ * A request is admitted when the bucket would not overflow its burst capacity;
+ * state changes are a single CAS on one long.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong();
+    private volatile long lastAccessNanos;
+
+    public TokenBucket(int capacity, double refillPerSecond, long nowNanos) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / refillPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.theoreticalArrival.set(nowNanos);
+        this.lastAccessNanos = nowNanos;
+    }
+
+    /**
+     * @return 0 when a token was taken, otherwise nanoseconds until the next token is available
+     */
+    public long tryConsume(long nowNanos) {
+        lastAccessNanos = nowNanos;
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = Math.max(tat, nowNanos);
+            long allowAt = base - burstToleranceNanos;
+            if (allowAt > nowNanos) {
+                return allowAt - nowNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * A bucket is idle once it has refilled completely and nobody touched it for the given time,
+     * so dropping it is indistinguishable from keeping it.
+     */
+    public boolean isIdle(long nowNanos, long idleNanos) {
+        return theoreticalArrival.get() <= nowNanos && nowNanos - lastAccessNanos >= idleNanos;
+    }
+}
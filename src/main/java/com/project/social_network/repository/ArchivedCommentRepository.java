@@ -0,0 +1,53 @@
+package com.project.social_network.repository;
+
+import com.project.social_network.entity.ArchivedComment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface ArchivedCommentRepository extends JpaRepository<ArchivedComment, Long> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "insert into comments_archive " +
+            "(id, post_id, username, user_id, message, status, status_changed_date, created_date, archived_date) " +
+            "select id, post_id, username, user_id, message, status, status_changed_date, created_date, :archivedDate " +
+            "from comments where id in :ids", nativeQuery = true)
+    int copyFromComments(Collection<Long> ids, LocalDateTime archivedDate);
+
+    @Transactional
+    @Modifying
+    @Query(value = "insert into comments_archive " +
+            "(id, post_id, username, user_id, message, status, status_changed_date, created_date, archived_date) " +
+            "select id, post_id, username, user_id, message, status, status_changed_date, created_date, :archivedDate " +
+            "from comments where post_id in :postIds", nativeQuery = true)
+    int copyFromCommentsOfPosts(Collection<Long> postIds, LocalDateTime archivedDate);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from comments where id in :ids", nativeQuery = true)
+    int deleteComments(Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from comments where post_id in :postIds", nativeQuery = true)
+    int deleteCommentsOfPosts(Collection<Long> postIds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "insert into comments (id, post_id, username, user_id, message, status, status_changed_date, created_date) " +
+            "select id, post_id, username, user_id, message, status, status_changed_date, created_date " +
+            "from comments_archive where post_id in :postIds", nativeQuery = true)
+    int restoreCommentsOfPosts(Collection<Long> postIds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from comments_archive where post_id in :postIds", nativeQuery = true)
+    int deleteArchivedCommentsOfPosts(Collection<Long> postIds);
+}
@@ -0,0 +1,70 @@
+package com.project.social_network.repository;
+
+import com.project.social_network.entity.ArchivedPost;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based moves between the hot posts tables and their archive copies. Every method works on
+ * a chunk of ids so that one call is one statement regardless of the chunk size.
+ */
+@Repository
+public interface ArchivedPostRepository extends JpaRepository<ArchivedPost, Long> {
+
+    @Query(value = "select id from posts_archive where user_id = :userId", nativeQuery = true)
+    List<Long> findIdsByUserId(Long userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "insert into posts_archive " +
+            "(id, caption, likes, status, status_changed_date, revision, comment_count, user_id, created_date, archived_date) " +
+            "select id, caption, likes, status, status_changed_date, revision, comment_count, user_id, created_date, :archivedDate " +
+            "from posts where id in :ids", nativeQuery = true)
+    int copyFromPosts(Collection<Long> ids, LocalDateTime archivedDate);
+
+    @Transactional
+    @Modifying
+    @Query(value = "insert into posts_archive_liked_users (post_id, liked_users) " +
+            "select post_id, liked_users from post_liked_users where post_id in :ids", nativeQuery = true)
+    int copyFromLikedUsers(Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from post_liked_users where post_id in :ids", nativeQuery = true)
+    int deleteLikedUsers(Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from posts where id in :ids", nativeQuery = true)
+    int deletePosts(Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query(value = "insert into posts (id, caption, likes, status, status_changed_date, revision, comment_count, user_id, created_date) " +
+            "select id, caption, likes, 'ACTIVE', :restoredDate, coalesce(revision, 0) + 1, coalesce(comment_count, 0), " +
+            "user_id, created_date from posts_archive where id in :ids", nativeQuery = true)
+    int restorePosts(Collection<Long> ids, LocalDateTime restoredDate);
+
+    @Transactional
+    @Modifying
+    @Query(value = "insert into post_liked_users (post_id, liked_users) " +
+            "select post_id, liked_users from posts_archive_liked_users where post_id in :ids", nativeQuery = true)
+    int restoreLikedUsers(Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from posts_archive_liked_users where post_id in :ids", nativeQuery = true)
+    int deleteArchivedLikedUsers(Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from posts_archive where id in :ids", nativeQuery = true)
+    int deleteArchivedPosts(Collection<Long> ids);
+}
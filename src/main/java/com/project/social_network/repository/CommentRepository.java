@@ -2,9 +2,12 @@ package com.project.social_network.repository;
 
 import com.project.social_network.entity.Comment;
 import com.project.social_network.entity.Post;
+import com.project.social_network.entity.enums.EStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -13,6 +16,13 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     //select * from comment where post = 'post'
     List<Comment> findAllByPost(Post post);
 
+    List<Comment> findAllByPostAndStatus(Post post, EStatus status);
+
     //select * from comment where id = 'commentId' and user_id = 'userId'
     Comment findByIdAndUserId(Long commentId, Long userId);
+
+    @Query(value = "select id from comments where status = 'INACTIVE' " +
+            "and coalesce(status_changed_date, created_date) < :before " +
+            "order by id limit :limit for update skip locked", nativeQuery = true)
+    List<Long> lockInactiveIdsBefore(LocalDateTime before, int limit);
 }
@@ -1,20 +1,81 @@
 package com.project.social_network.repository;
 
+import com.project.social_network.dto.FriendRequestDTO;
 import com.project.social_network.entity.Friend;
-import com.project.social_network.entity.User;
+import com.project.social_network.entity.enums.EFriendshipState;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface FriendRepository extends JpaRepository<Friend, Long> {
 
-    boolean existsByFirstUserAndSecondUser(User firstUser, User secondUser);
+    Optional<Friend> findByLowUserIdAndHighUserId(Long lowUserId, Long highUserId);
 
-    Optional<Friend> findByFirstUserAndSecondUser(User firstUser, User secondUser);
+    boolean existsByLowUserIdAndHighUserIdAndState(Long lowUserId, Long highUserId, EFriendshipState state);
 
-    List<Friend> findByFirstUser(User user);
-    List<Friend> findBySecondUser(User user);
-}
\ No newline at end of file
+    //select other side of every edge of 'userId' in state 'state'
+    @Query("select case when f.lowUserId = :userId then f.highUserId else f.lowUserId end " +
+            "from Friend f where (f.lowUserId = :userId or f.highUserId = :userId) and f.state = :state")
+    List<Long> findFriendIds(Long userId, EFriendshipState state);
+
+    //pending requests sent by 'userId'
+    @Query("select case when f.lowUserId = :userId then f.highUserId else f.lowUserId end " +
+            "from Friend f where (f.lowUserId = :userId or f.highUserId = :userId) " +
+            "and f.state = com.project.social_network.entity.enums.EFriendshipState.PENDING " +
+            "and f.requesterId = :userId")
+    List<Long> findSentRequestIds(Long userId);
+
+    //pending requests received by 'userId'
+    @Query("select f.requesterId from Friend f where (f.lowUserId = :userId or f.highUserId = :userId) " +
+            "and f.state = com.project.social_network.entity.enums.EFriendshipState.PENDING " +
+            "and f.requesterId <> :userId")
+    List<Long> findRetrievedRequestIds(Long userId);
+
+    //(low_user_id, high_user_id) of every accepted edge whose low side is one of 'userIds'
+    @Query("select f.lowUserId, f.highUserId from Friend f " +
+            "where f.state = com.project.social_network.entity.enums.EFriendshipState.ACCEPTED " +
+            "and f.lowUserId in :userIds")
+    List<Object[]> findAcceptedEdgesByLowUserIds(Collection<Long> userIds);
+
+    //(low_user_id, high_user_id) of every accepted edge whose high side is one of 'userIds'
+    @Query("select f.lowUserId, f.highUserId from Friend f " +
+            "where f.state = com.project.social_network.entity.enums.EFriendshipState.ACCEPTED " +
+            "and f.highUserId in :userIds")
+    List<Object[]> findAcceptedEdgesByHighUserIds(Collection<Long> userIds);
+
+    //pending requests received by 'userId', newest first
+    @Query("select new com.project.social_network.dto.FriendRequestDTO(u.id, u.username, u.name, u.lastName, " +
+            "f.createdDate) from Friend f, User u where f.recipientId = :userId " +
+            "and f.state = com.project.social_network.entity.enums.EFriendshipState.PENDING " +
+            "and u.id = f.requesterId order by f.createdDate desc")
+    List<FriendRequestDTO> findPendingInbox(Long userId, Pageable pageable);
+
+    //pending requests sent by 'userId', newest first
+    @Query("select new com.project.social_network.dto.FriendRequestDTO(u.id, u.username, u.name, u.lastName, " +
+            "f.createdDate) from Friend f, User u where f.requesterId = :userId " +
+            "and f.state = com.project.social_network.entity.enums.EFriendshipState.PENDING " +
+            "and u.id = f.recipientId order by f.createdDate desc")
+    List<FriendRequestDTO> findPendingOutbox(Long userId, Pageable pageable);
+
+    //ids among 'otherIds' that are accepted friends of 'userId'
+    @Query("select case when f.lowUserId = :userId then f.highUserId else f.lowUserId end from Friend f " +
+            "where f.state = com.project.social_network.entity.enums.EFriendshipState.ACCEPTED " +
+            "and ((f.lowUserId = :userId and f.highUserId in :otherIds) " +
+            "or (f.highUserId = :userId and f.lowUserId in :otherIds))")
+    List<Long> findFriendIdsAmong(Long userId, Collection<Long> otherIds);
+
+    default Optional<Friend> findByUserIds(Long userId1, Long userId2) {
+        return findByLowUserIdAndHighUserId(Math.min(userId1, userId2), Math.max(userId1, userId2));
+    }
+
+    default boolean areFriends(Long userId1, Long userId2) {
+        return existsByLowUserIdAndHighUserIdAndState(Math.min(userId1, userId2), Math.max(userId1, userId2),
+                EFriendshipState.ACCEPTED);
+    }
+}
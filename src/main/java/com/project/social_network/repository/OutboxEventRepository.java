@@ -0,0 +1,29 @@
+package com.project.social_network.repository;
+
+import com.project.social_network.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findByProcessedFalseAndCreatedDateBeforeOrderByIdAsc(LocalDateTime before, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update OutboxEvent e set e.processed = true where e.id in :ids")
+    int markProcessed(Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxEvent e where e.processed = true and e.createdDate < :before")
+    int deleteProcessedBefore(LocalDateTime before);
+}
@@ -2,9 +2,15 @@ package com.project.social_network.repository;
 
 import com.project.social_network.entity.Post;
 import com.project.social_network.entity.User;
+import com.project.social_network.entity.enums.EStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +24,42 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     Optional<Post> findPostByIdAndUser(Long id, User user);
 
     List<Post> findAllByUser(User user);
+
+    @Query("select distinct p from Post p join fetch p.user left join fetch p.likedUsers where p.id in :ids")
+    List<Post> findAllWithUserByIdIn(Collection<Long> ids);
+
+    // keyset pages, newest first: 'before' is the createdDate of the last post already shown, so a page
+    // is one bounded range of the status or user index on created_date, partitions newer than the
+    // cursor are pruned and the scan stops once the page is full
+    @Query("select p from Post p where p.status = :status " +
+            "and p.createdDate >= :since and p.createdDate < :before order by p.createdDate desc")
+    List<Post> findPageByStatus(EStatus status, LocalDateTime since, LocalDateTime before, Pageable pageable);
+
+    @Query("select p from Post p where p.user in :users and p.status = :status " +
+            "and p.createdDate >= :since and p.createdDate < :before order by p.createdDate desc")
+    List<Post> findPageByUsersAndStatus(Collection<User> users, EStatus status, LocalDateTime since,
+                                        LocalDateTime before, Pageable pageable);
+
+    @Query("select p from Post p where p.user = :user and p.createdDate < :before order by p.createdDate desc")
+    List<Post> findPageByUser(User user, LocalDateTime before, Pageable pageable);
+
+    //both increment in place and return the new revision, so two concurrent writers never see the same one
+    @Transactional
+    @Query(value = "update posts set revision = coalesce(revision, 0) + 1 where id = :postId returning revision",
+            nativeQuery = true)
+    Long incrementRevision(Long postId);
+
+    //(id, revision) of the given posts
+    @Query("select p.id, p.revision from Post p where p.id in :ids")
+    List<Object[]> findRevisions(Collection<Long> ids);
+
+    @Transactional
+    @Query(value = "update posts set comment_count = comment_count + :delta, revision = coalesce(revision, 0) + 1 " +
+            "where id = :postId returning revision", nativeQuery = true)
+    Long addCommentCount(Long postId, int delta);
+
+    @Query(value = "select id from posts where status = 'INACTIVE' " +
+            "and coalesce(status_changed_date, created_date) < :before " +
+            "order by id limit :limit for update skip locked", nativeQuery = true)
+    List<Long> lockInactiveIdsBefore(LocalDateTime before, int limit);
 }
@@ -0,0 +1,35 @@
+package com.project.social_network.repository;
+
+import com.project.social_network.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.userId = :userId and t.revoked = false")
+    int revokeAllByUserId(Long userId);
+
+    /**
+     * Conditional write, so of two concurrent refreshes with the same token exactly one gets 1.
+     */
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.id = :id and t.revoked = false")
+    int revokeIfActive(Long id);
+
+    // revoked tokens are kept until they expire, otherwise their reuse could no longer be detected
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiryDate < :now")
+    int deleteExpired(LocalDateTime now);
+}
@@ -1,9 +1,14 @@
 package com.project.social_network.repository;
 
+import com.project.social_network.dto.ProfileSummaryDTO;
 import com.project.social_network.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +19,53 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findUserByEmail(String email);
 
     Optional<User> findUserById(Long id);
+
+    @Query("select new com.project.social_network.dto.ProfileSummaryDTO(u.id, u.username, u.status, u.friendCount, " +
+            "u.postCount, u.sentRequestCount, u.receivedRequestCount) from User u where u.username = :username")
+    Optional<ProfileSummaryDTO> findSummaryByUsername(String username);
+
+    //total of the friend counters of 'userIds', an estimate of how many edges loading them returns
+    @Query("select coalesce(sum(u.friendCount), 0) from User u where u.id in :userIds")
+    long sumFriendCounts(Collection<Long> userIds);
+
+    //counters are changed in place so concurrent updates of the same user do not overwrite each other
+    @Modifying
+    @Query("update User u set u.friendCount = u.friendCount + :delta where u.id = :userId")
+    int addFriendCount(Long userId, int delta);
+
+    @Modifying
+    @Query("update User u set u.postCount = u.postCount + :delta where u.id = :userId")
+    int addPostCount(Long userId, int delta);
+
+    @Modifying
+    @Query("update User u set u.sentRequestCount = u.sentRequestCount + :delta where u.id = :userId")
+    int addSentRequestCount(Long userId, int delta);
+
+    @Modifying
+    @Query("update User u set u.receivedRequestCount = u.receivedRequestCount + :delta where u.id = :userId")
+    int addReceivedRequestCount(Long userId, int delta);
+
+    @Query(value = "select coalesce(max(id), 0) from users", nativeQuery = true)
+    long findMaxId();
+
+    /**
+     * Recomputes the counters of users with ids in [fromId, toId) and rewrites the ones that drifted.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update users u set friend_count = c.friend_count, post_count = c.post_count, " +
+            "sent_request_count = c.sent_request_count, received_request_count = c.received_request_count " +
+            "from (select x.id, " +
+            "(select count(*) from friendships f where f.state = 'ACCEPTED' " +
+            "and (f.low_user_id = x.id or f.high_user_id = x.id)) as friend_count, " +
+            "(select count(*) from posts p where p.user_id = x.id and p.status <> 'INACTIVE') as post_count, " +
+            "(select count(*) from friendships f where f.state = 'PENDING' " +
+            "and f.requester_id = x.id) as sent_request_count, " +
+            "(select count(*) from friendships f where f.state = 'PENDING' and f.requester_id <> x.id " +
+            "and (f.low_user_id = x.id or f.high_user_id = x.id)) as received_request_count " +
+            "from users x where x.id >= :fromId and x.id < :toId) c " +
+            "where u.id = c.id and (u.friend_count <> c.friend_count or u.post_count <> c.post_count " +
+            "or u.sent_request_count <> c.sent_request_count " +
+            "or u.received_request_count <> c.received_request_count)", nativeQuery = true)
+    int reconcileCounters(long fromId, long toId);
 }
@@ -0,0 +1,25 @@
+package com.project.social_network.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Decides who may call /admin/**: the usernames listed in admin.users. Referenced from the
+ * security rule in SecurityConfig as @adminAccess.
+ */
+@Component("adminAccess")
+public class AdminAccess {
+
+    private final Set<String> adminUsers;
+
+    public AdminAccess(@Value("${admin.users:}") Set<String> adminUsers) {
+        this.adminUsers = adminUsers;
+    }
+
+    public boolean isAdmin(Authentication authentication) {
+        return authentication != null && adminUsers.contains(authentication.getName());
+    }
+}
@@ -1,6 +1,7 @@
 package com.project.social_network.security;
 
 import com.project.social_network.entity.User;
+import com.project.social_network.logger.RequestTimings;
 import com.project.social_network.services.CustomUserDetailsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +33,7 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
         try {
             String jwt = getJWTFromRequest(request);
             if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
@@ -49,6 +51,10 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
             LOG.error("Could not set user authentication");
             LOG.error(ex.getMessage());
         }
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.addAuthNanos(System.nanoTime() - start);
+        }
 
         filterChain.doFilter(request, response);
     }
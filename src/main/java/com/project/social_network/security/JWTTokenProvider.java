@@ -17,7 +17,10 @@ public class JWTTokenProvider {
     public static final Logger LOG = LoggerFactory.getLogger(JWTTokenProvider.class);
 
     public String generateToken(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
+        return generateToken((User) authentication.getPrincipal());
+    }
+
+    public String generateToken(User user) {
         Date now = new Date(System.currentTimeMillis());
         Date expiryDate = new Date(now.getTime() + SecurityConstants.EXPIRATION_TIME);
 
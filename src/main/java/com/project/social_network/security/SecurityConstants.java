@@ -3,11 +3,13 @@ package com.project.social_network.security;
 public class SecurityConstants {
 
     public static final String SIGN_UP_URLS = "/auth/**";
+    public static final String ADMIN_URLS = "/admin/**";
     public static final String SECRET = "SecretKeyGenJWT";
     public static final String TOKEN_PREFIX = "Bearer ";
     public static final String HEADER_STRING = "Authorization";
     public static final String CONTENT_TYPE = "application/json";
     public static final long EXPIRATION_TIME = 900_000; //15min
+    public static final long REFRESH_EXPIRATION_TIME = 1_209_600_000; //14days
 
     private SecurityConstants() {
     }
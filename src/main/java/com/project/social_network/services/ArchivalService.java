@@ -0,0 +1,172 @@
+package com.project.social_network.services;
+
+import com.project.social_network.invalidation.ECacheRegion;
+import com.project.social_network.invalidation.InvalidationPublisher;
+import com.project.social_network.repository.ArchivedCommentRepository;
+import com.project.social_network.repository.ArchivedPostRepository;
+import com.project.social_network.repository.CommentRepository;
+import com.project.social_network.repository.PostRepository;
+import com.project.social_network.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Methods:
+ * Archive Inactive Posts,
+ * Archive Inactive Comments,
+ * Restore Post,
+ * Restore Posts Of User
+ *
+ * Posts and comments that stayed INACTIVE longer than the retention period are moved to the
+ * posts_archive and comments_archive tables, so the hot tables and their indexes only hold rows
+ * that can still be served. Each chunk is moved in its own short transaction; rows are locked
+ * with SKIP LOCKED so the job never waits on user traffic or on another instance.
+ * Restored posts come back ACTIVE with a fresh status_changed_date, otherwise the next run would
+ * archive them again.
+ */
+
+@Lazy(false)
+@Service
+public class ArchivalService {
+
+    public static final Logger LOG = LoggerFactory.getLogger(ArchivalService.class);
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final ArchivedPostRepository archivedPostRepository;
+    private final ArchivedCommentRepository archivedCommentRepository;
+    private final UserRepository userRepository;
+    private final InvalidationPublisher invalidationPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final long retentionDays;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+
+    @Autowired
+    public ArchivalService(PostRepository postRepository,
+                           CommentRepository commentRepository,
+                           ArchivedPostRepository archivedPostRepository,
+                           ArchivedCommentRepository archivedCommentRepository,
+                           UserRepository userRepository,
+                           InvalidationPublisher invalidationPublisher,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${archive.retention-days:30}") long retentionDays,
+                           @Value("${archive.chunk-size:500}") int chunkSize,
+                           @Value("${archive.max-chunks-per-run:200}") int maxChunksPerRun) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.archivedPostRepository = archivedPostRepository;
+        this.archivedCommentRepository = archivedCommentRepository;
+        this.userRepository = userRepository;
+        this.invalidationPublisher = invalidationPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionDays = retentionDays;
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.maxChunksPerRun = Math.max(maxChunksPerRun, 1);
+    }
+
+    @Scheduled(fixedDelayString = "${archive.interval-ms:3600000}")
+    public void archiveInactive() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int posts = 0;
+        int comments = 0;
+
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            int moved = archivePostChunk(cutoff);
+            posts += moved;
+            if (moved < chunkSize) {
+                break;
+            }
+        }
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            int moved = archiveCommentChunk(cutoff);
+            comments += moved;
+            if (moved < chunkSize) {
+                break;
+            }
+        }
+        if (posts > 0 || comments > 0) {
+            LOG.info("Archived {} posts and {} comments inactive since before {}", posts, comments, cutoff);
+        }
+    }
+
+    /**
+     * Moves one chunk of inactive posts together with their comments and likes.
+     */
+    int archivePostChunk(LocalDateTime cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> ids = postRepository.lockInactiveIdsBefore(cutoff, chunkSize);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            archivedPostRepository.copyFromPosts(ids, now);
+            archivedPostRepository.copyFromLikedUsers(ids);
+            archivedCommentRepository.copyFromCommentsOfPosts(ids, now);
+            archivedCommentRepository.deleteCommentsOfPosts(ids);
+            archivedPostRepository.deleteLikedUsers(ids);
+            archivedPostRepository.deletePosts(ids);
+            return ids.size();
+        });
+        return moved == null ? 0 : moved;
+    }
+
+    /**
+     * Moves one chunk of inactive comments that belong to posts which are still live.
+     */
+    int archiveCommentChunk(LocalDateTime cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> ids = commentRepository.lockInactiveIdsBefore(cutoff, chunkSize);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            archivedCommentRepository.copyFromComments(ids, LocalDateTime.now());
+            archivedCommentRepository.deleteComments(ids);
+            return ids.size();
+        });
+        return moved == null ? 0 : moved;
+    }
+
+    @Transactional
+    public int restorePost(Long postId) {
+        return archivedPostRepository.findById(postId)
+                .map(post -> restore(post.getUserId(), Collections.singletonList(postId)))
+                .orElse(0);
+    }
+
+    @Transactional
+    public int restorePostsOfUser(Long userId) {
+        return restore(userId, archivedPostRepository.findIdsByUserId(userId));
+    }
+
+    private int restore(Long userId, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        LOG.info("Restoring {} archived posts", ids.size());
+        archivedPostRepository.restorePosts(ids, LocalDateTime.now());
+        archivedPostRepository.restoreLikedUsers(ids);
+        archivedCommentRepository.restoreCommentsOfPosts(ids);
+        archivedCommentRepository.deleteArchivedCommentsOfPosts(ids);
+        archivedPostRepository.deleteArchivedLikedUsers(ids);
+        archivedPostRepository.deleteArchivedPosts(ids);
+        userRepository.addPostCount(userId, ids.size());
+        // restoring bumped the revision, so the archived copy still cached under the old one is dropped
+        for (Object[] revision : postRepository.findRevisions(ids)) {
+            invalidationPublisher.invalidate(ECacheRegion.POST, (Long) revision[0], (Long) revision[1]);
+        }
+        return ids.size();
+    }
+}
@@ -0,0 +1,356 @@
+package com.project.social_network.services;
+
+import com.project.social_network.dto.CommentDTO;
+import com.project.social_network.entity.Comment;
+import com.project.social_network.entity.User;
+import com.project.social_network.entity.enums.EEventType;
+import com.project.social_network.entity.enums.EStatus;
+import com.project.social_network.events.DomainEventPublisher;
+import com.project.social_network.exceptions.PostNotFoundException;
+import com.project.social_network.exceptions.ServiceUnavailableException;
+import com.project.social_network.invalidation.ECacheRegion;
+import com.project.social_network.invalidation.InvalidationPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.Principal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Gathers comments into batches bounded by size and delay and stores each batch with one
+ * multi-row insert, one counter update per post and one transaction. Callers wait on the
+ * completion handle of their own comment. Falls back to CommentService when batching is
+ * disabled or the queue is full. If a batch fails, its comments are retried one by one so a
+ * single bad row fails only its own request.
+ *
+ * A caller that timed out cannot know whether its comment was stored. Retrying with the same
+ * Idempotency-Key joins the original comment instead of creating a second one; keys are
+ * remembered per user for comments.batching.idempotency-retention-ms after the first request.
+ * Methods:
+ * Create Comment,
+ * Purge Expired Idempotency Keys
+ */
+
+@Lazy(false)
+@Service
+public class CommentIngestionService implements DisposableBean {
+
+    public static final Logger LOG = LoggerFactory.getLogger(CommentIngestionService.class);
+
+    // 7 bind parameters per row, Postgres allows 32767 per statement
+    private static final int MAX_ROWS_PER_INSERT = 1000;
+
+    private final CommentService commentService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DomainEventPublisher eventPublisher;
+    private final InvalidationPublisher invalidationPublisher;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final long responseTimeoutMs;
+    private final long idempotencyRetentionMs;
+    private final int maxIdempotencyKeys;
+    private final ConcurrentHashMap<String, PendingComment> byIdempotencyKey = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingComment> queue;
+    private final Thread worker;
+    private volatile boolean running;
+
+    @Autowired
+    public CommentIngestionService(CommentService commentService,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   DomainEventPublisher eventPublisher,
+                                   InvalidationPublisher invalidationPublisher,
+                                   @Value("${comments.batching.enabled:true}") boolean enabled,
+                                   @Value("${comments.batching.max-batch:200}") int maxBatch,
+                                   @Value("${comments.batching.max-delay-ms:5}") long maxDelayMs,
+                                   @Value("${comments.batching.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${comments.batching.response-timeout-ms:5000}") long responseTimeoutMs,
+                                   @Value("${comments.batching.idempotency-retention-ms:600000}") long idempotencyRetentionMs,
+                                   @Value("${comments.batching.max-idempotency-keys:100000}") int maxIdempotencyKeys) {
+        this.commentService = commentService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.invalidationPublisher = invalidationPublisher;
+        this.enabled = enabled;
+        this.maxBatch = Math.min(Math.max(maxBatch, 1), MAX_ROWS_PER_INSERT);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(maxDelayMs, 0));
+        this.responseTimeoutMs = responseTimeoutMs;
+        this.idempotencyRetentionMs = idempotencyRetentionMs;
+        this.maxIdempotencyKeys = maxIdempotencyKeys;
+        this.queue = new LinkedBlockingQueue<>(Math.max(queueCapacity, 1));
+        this.worker = new Thread(this::run, "comment-ingestion");
+        this.worker.setDaemon(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            running = true;
+            worker.start();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        worker.interrupt();
+    }
+
+    /**
+     * @param idempotencyKey optional, a retry with the same key returns the comment of the first call
+     */
+    public Comment createComment(Long postId, CommentDTO commentDTO, Principal principal, String idempotencyKey) {
+        User user = authenticatedUser(principal);
+        if (!running || user == null) {
+            return commentService.saveComment(postId, commentDTO, principal);
+        }
+
+        PendingComment pending = new PendingComment(postId, user.getId(), user.getUsername(), commentDTO.getMessage());
+        if (idempotencyKey != null && !idempotencyKey.isEmpty()) {
+            PendingComment original = remember(user.getId() + ":" + idempotencyKey, pending);
+            if (original != null) {
+                LOG.debug("Comment with idempotency key {} of user {} already submitted", idempotencyKey, user.getId());
+                return await(original);
+            }
+        }
+
+        if (!queue.offer(pending)) {
+            LOG.warn("Comment queue full, storing comment for post {} directly", postId);
+            try {
+                Comment comment = commentService.saveComment(postId, commentDTO, principal);
+                pending.future.complete(comment);
+                return comment;
+            } catch (RuntimeException ex) {
+                pending.future.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        return await(pending);
+    }
+
+    @Scheduled(fixedDelayString = "${comments.batching.idempotency-purge-interval-ms:60000}")
+    public void purgeExpiredIdempotencyKeys() {
+        long cutoff = System.currentTimeMillis() - idempotencyRetentionMs;
+        byIdempotencyKey.values().removeIf(pending -> pending.future.isDone() && pending.createdMillis < cutoff);
+    }
+
+    /**
+     * Registers pending under key and returns null, or returns the comment already registered under it.
+     * Failed comments are forgotten again, so their retry is stored anew.
+     */
+    private PendingComment remember(String key, PendingComment pending) {
+        if (byIdempotencyKey.size() >= maxIdempotencyKeys) {
+            LOG.warn("Too many remembered idempotency keys, accepting comment without one");
+            return null;
+        }
+        PendingComment original = byIdempotencyKey.putIfAbsent(key, pending);
+        // the failed original may not have been forgotten yet when its caller already retries
+        if (original != null && original.future.isCompletedExceptionally()
+                && byIdempotencyKey.replace(key, original, pending)) {
+            original = null;
+        }
+        if (original == null) {
+            pending.future.whenComplete((comment, ex) -> {
+                if (ex != null) {
+                    byIdempotencyKey.remove(key, pending);
+                }
+            });
+        }
+        return original;
+    }
+
+    private Comment await(PendingComment pending) {
+        Long postId = pending.postId;
+        try {
+            return pending.future.get(responseTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new ServiceUnavailableException("Comment for post " + postId + " is still being stored, " +
+                    "retry with the same Idempotency-Key to get it");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while storing comment for post " + postId);
+        }
+    }
+
+    private User authenticatedUser(Principal principal) {
+        if (principal instanceof Authentication && ((Authentication) principal).getPrincipal() instanceof User) {
+            return (User) ((Authentication) principal).getPrincipal();
+        }
+        return null;
+    }
+
+    private void run() {
+        List<PendingComment> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                PendingComment first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatch) {
+                    if (queue.drainTo(batch, maxBatch - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingComment next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception ex) {
+                LOG.error("Comment batch of {} failed, storing its comments one by one: {}", batch.size(), ex.getMessage());
+                writeOneByOne(batch);
+            } finally {
+                batch.clear();
+            }
+        }
+        List<PendingComment> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        failAll(remaining, new ServiceUnavailableException("Comment ingestion is shutting down"));
+    }
+
+    private void write(List<PendingComment> batch) {
+        List<PendingComment> stored = transactionTemplate.execute(status -> insert(batch));
+        for (PendingComment pending : stored) {
+            pending.future.complete(pending.comment);
+        }
+        LOG.debug("Stored batch of {} comments", stored.size());
+    }
+
+    private void writeOneByOne(List<PendingComment> batch) {
+        for (PendingComment pending : batch) {
+            if (pending.future.isDone()) {
+                continue;
+            }
+            try {
+                write(Collections.singletonList(pending));
+            } catch (Exception ex) {
+                LOG.error("Comment for post {} failed: {}", pending.postId, ex.getMessage());
+                pending.future.completeExceptionally(ex);
+            }
+        }
+    }
+
+    private List<PendingComment> insert(List<PendingComment> batch) {
+        Map<Long, Integer> countsByPost = new LinkedHashMap<>();
+        for (PendingComment pending : batch) {
+            countsByPost.put(pending.postId, 0);
+        }
+        Set<Long> existing = new HashSet<>(jdbcTemplate.queryForList(
+                "select id from posts where id in (" + placeholders(countsByPost.size(), "?") + ")",
+                Long.class, countsByPost.keySet().toArray()));
+
+        List<PendingComment> accepted = new ArrayList<>(batch.size());
+        for (PendingComment pending : batch) {
+            if (existing.contains(pending.postId)) {
+                accepted.add(pending);
+                countsByPost.merge(pending.postId, 1, Integer::sum);
+            } else {
+                pending.future.completeExceptionally(
+                        new PostNotFoundException("Post not found with ID " + pending.postId));
+            }
+        }
+        if (accepted.isEmpty()) {
+            return accepted;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object> args = new ArrayList<>(accepted.size() * 7);
+        for (PendingComment pending : accepted) {
+            Collections.addAll(args, pending.postId, pending.userId, pending.username, pending.message,
+                    EStatus.ACTIVE.name(), timestamp, timestamp);
+        }
+        List<Long> ids = jdbcTemplate.queryForList(
+                "insert into comments (post_id, user_id, username, message, status, created_date, status_changed_date) " +
+                        "values " + placeholders(accepted.size(), "(?, ?, ?, ?, ?, ?, ?)") + " returning id",
+                Long.class, args.toArray());
+
+        for (int i = 0; i < accepted.size(); i++) {
+            PendingComment pending = accepted.get(i);
+            Comment comment = new Comment();
+            comment.setId(ids.get(i));
+            comment.setUserId(pending.userId);
+            comment.setUsername(pending.username);
+            comment.setMessage(pending.message);
+            comment.setStatus(EStatus.ACTIVE);
+            comment.setStatusChangedDate(now);
+            comment.setCreatedDate(now);
+            pending.comment = comment;
+            eventPublisher.publish(EEventType.COMMENT_CREATED, pending.postId, pending.userId);
+        }
+
+        for (Map.Entry<Long, Integer> entry : countsByPost.entrySet()) {
+            if (entry.getValue() == 0) {
+                continue;
+            }
+            Long revision = jdbcTemplate.queryForObject(
+                    "update posts set comment_count = comment_count + ?, revision = coalesce(revision, 0) + 1 " +
+                            "where id = ? returning revision",
+                    Long.class, entry.getValue(), entry.getKey());
+            invalidationPublisher.invalidate(ECacheRegion.POST, entry.getKey(), revision == null ? 0L : revision);
+        }
+        return accepted;
+    }
+
+    private static String placeholders(int count, String placeholder) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (int i = 0; i < count; i++) {
+            joiner.add(placeholder);
+        }
+        return joiner.toString();
+    }
+
+    private static void failAll(List<PendingComment> batch, Exception ex) {
+        for (PendingComment pending : batch) {
+            pending.future.completeExceptionally(ex);
+        }
+    }
+
+    private static final class PendingComment {
+        private final Long postId;
+        private final Long userId;
+        private final String username;
+        private final String message;
+        private final long createdMillis = System.currentTimeMillis();
+        private final CompletableFuture<Comment> future = new CompletableFuture<>();
+        private Comment comment;
+
+        private PendingComment(Long postId, Long userId, String username, String message) {
+            this.postId = postId;
+            this.userId = userId;
+            this.username = username;
+            this.message = message;
+        }
+    }
+}
@@ -1,24 +1,31 @@
 package com.project.social_network.services;
 
+import com.project.social_network.cache.SingleFlight;
 import com.project.social_network.dto.CommentDTO;
 import com.project.social_network.entity.Comment;
 import com.project.social_network.entity.Post;
 import com.project.social_network.entity.User;
+import com.project.social_network.entity.enums.EEventType;
 import com.project.social_network.entity.enums.EStatus;
+import com.project.social_network.events.DomainEventPublisher;
 import com.project.social_network.exceptions.CommentNotFoundException;
 import com.project.social_network.exceptions.PostNotFoundException;
+import com.project.social_network.invalidation.ECacheRegion;
+import com.project.social_network.invalidation.InvalidationPublisher;
 import com.project.social_network.repository.CommentRepository;
 import com.project.social_network.repository.PostRepository;
 import com.project.social_network.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.security.Principal;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Methods:
@@ -35,16 +42,26 @@ public class CommentService {
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final DomainEventPublisher eventPublisher;
+    private final InvalidationPublisher invalidationPublisher;
+    private final SingleFlight<Long, List<Comment>> commentSingleFlight;
 
     @Autowired
     public CommentService(CommentRepository commentRepository,
                           PostRepository postRepository,
-                          UserRepository userRepository) {
+                          UserRepository userRepository,
+                          DomainEventPublisher eventPublisher,
+                          InvalidationPublisher invalidationPublisher,
+                          @Qualifier("commentSingleFlight") SingleFlight<Long, List<Comment>> commentSingleFlight) {
         this.commentRepository = commentRepository;
         this.postRepository = postRepository;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.invalidationPublisher = invalidationPublisher;
+        this.commentSingleFlight = commentSingleFlight;
     }
 
+    @Transactional
     public Comment saveComment(Long postId, CommentDTO commentDTO, Principal principal) {
         User user = getUserByPrincipal(principal);
         Post post = getPost(postId);
@@ -58,22 +75,30 @@ public class CommentService {
 
         LOG.info("Saving comment for Post: {}", post.getId());
 
-        return commentRepository.save(comment);
+        Comment savedComment = commentRepository.save(comment);
+        post.setRevision(postRepository.addCommentCount(post.getId(), 1));
+        invalidationPublisher.invalidate(ECacheRegion.POST, post.getId(), post.getRevisionOrZero());
+        eventPublisher.publish(EEventType.COMMENT_CREATED, post.getId(), user.getId());
+        return savedComment;
     }
 
     public List<Comment> getAllCommentsForPost(Long postId) {
         LOG.info("Getting all comments for post {}", postId);
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new PostNotFoundException("Post not found with ID " + postId));
-        return commentRepository.findAllByPost(post)
-                .stream()
-                .filter(c -> c.getStatus().equals((EStatus.ACTIVE)))
-                .collect(Collectors.toList());
+        return commentSingleFlight.load(postId, () -> {
+            Post post = getPost(postId);
+            return Collections.unmodifiableList(commentRepository.findAllByPostAndStatus(post, EStatus.ACTIVE));
+        });
     }
 
+    @Transactional
     public void deleteComment(Long commentId) {
         Comment comment = getCommentById(commentId);
-        LOG.info("Deleting comment {} for post {}", commentId, comment.getPost().getId());
+        Post post = comment.getPost();
+        LOG.info("Deleting comment {} for post {}", commentId, post.getId());
+        if (comment.getStatus() == EStatus.ACTIVE) {
+            post.setRevision(postRepository.addCommentCount(post.getId(), -1));
+            invalidationPublisher.invalidate(ECacheRegion.POST, post.getId(), post.getRevisionOrZero());
+        }
         comment.setStatus(EStatus.INACTIVE);
         commentRepository.save(comment);
     }
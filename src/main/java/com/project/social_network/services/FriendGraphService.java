@@ -0,0 +1,416 @@
+package com.project.social_network.services;
+
+import com.project.social_network.entity.enums.EEventType;
+import com.project.social_network.events.DomainEvent;
+import com.project.social_network.events.DomainEventListener;
+import com.project.social_network.invalidation.ECacheRegion;
+import com.project.social_network.invalidation.InvalidationHandler;
+import com.project.social_network.repository.FriendRepository;
+import com.project.social_network.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Methods:
+ * Get Friend Ids,
+ * Load Friend Ids Of Many Users,
+ * Count Mutual Friends,
+ * Get Mutual Friend Ids,
+ * Find Shortest Friendship Path,
+ * Invalidate User
+ *
+ * Keeps each user's accepted friends as a sorted long[] so set operations run on
+ * primitive arrays instead of entity lists. Entries are dropped again once an accepted
+ * friendship is committed. Every invalidation advances a generation counter, and a load that
+ * overlapped one drops what it cached, so a read from before the commit cannot stay cached.
+ * Path searches read the cache but do not fill it, so one wide search cannot evict the
+ * adjacency of every active user.
+ */
+
+@Service
+public class FriendGraphService implements DomainEventListener, InvalidationHandler {
+
+    public static final Logger LOG = LoggerFactory.getLogger(FriendGraphService.class);
+
+    private static final long[] EMPTY = new long[0];
+
+    // one bind parameter per id, Postgres allows 32767 per statement
+    private static final int MAX_IDS_PER_QUERY = 10_000;
+
+    private final FriendRepository friendRepository;
+    private final UserRepository userRepository;
+    private final ConcurrentHashMap<Long, long[]> adjacency = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final int maxEntries;
+
+    @Autowired
+    public FriendGraphService(FriendRepository friendRepository,
+                              UserRepository userRepository,
+                              @Value("${friend-graph.max-cached-users:100000}") int maxEntries) {
+        this.friendRepository = friendRepository;
+        this.userRepository = userRepository;
+        this.maxEntries = maxEntries;
+    }
+
+    public long[] getFriendIds(Long userId) {
+        long[] friends = adjacency.get(userId);
+        if (friends != null) {
+            return friends;
+        }
+        return loadFriendIds(Collections.singleton(userId)).get(userId);
+    }
+
+    /**
+     * Returns the sorted friend ids of every given user, loading the missing ones
+     * with two queries per chunk of ids.
+     */
+    public Map<Long, long[]> loadFriendIds(Collection<Long> userIds) {
+        Map<Long, long[]> result = new HashMap<>(userIds.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        for (Long userId : userIds) {
+            long[] friends = adjacency.get(userId);
+            if (friends != null) {
+                result.put(userId, friends);
+            } else {
+                missing.add(userId);
+            }
+        }
+        for (int from = 0; from < missing.size(); from += MAX_IDS_PER_QUERY) {
+            result.putAll(load(missing.subList(from, Math.min(from + MAX_IDS_PER_QUERY, missing.size())), true));
+        }
+        return result;
+    }
+
+    /**
+     * Loads the friend ids of at most MAX_IDS_PER_QUERY users. The edge queries are split by side,
+     * so each binds the id list once and can use the index on its own column.
+     */
+    private Map<Long, long[]> load(List<Long> userIds, boolean cache) {
+        long loadGeneration = generation.get();
+        Map<Long, LongList> loaded = new HashMap<>(userIds.size() * 2);
+        for (Long userId : userIds) {
+            loaded.put(userId, new LongList());
+        }
+        for (Object[] edge : friendRepository.findAcceptedEdgesByLowUserIds(userIds)) {
+            loaded.get((Long) edge[0]).add((Long) edge[1]);
+        }
+        for (Object[] edge : friendRepository.findAcceptedEdgesByHighUserIds(userIds)) {
+            loaded.get((Long) edge[1]).add((Long) edge[0]);
+        }
+
+        if (cache) {
+            evictIfFull(userIds.size());
+        }
+        Map<Long, long[]> result = new HashMap<>(userIds.size() * 2);
+        for (Map.Entry<Long, LongList> entry : loaded.entrySet()) {
+            long[] friends = entry.getValue().toSortedArray();
+            if (cache) {
+                adjacency.put(entry.getKey(), friends);
+            }
+            result.put(entry.getKey(), friends);
+        }
+        // an invalidation ran while loading: it may have missed the entries put above, drop them
+        if (cache && generation.get() != loadGeneration) {
+            for (Map.Entry<Long, long[]> entry : result.entrySet()) {
+                adjacency.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    public int countMutualFriends(Long userId1, Long userId2) {
+        Map<Long, long[]> friends = loadFriendIds(Arrays.asList(userId1, userId2));
+        return intersect(friends.get(userId1), friends.get(userId2), 0, Integer.MAX_VALUE).length;
+    }
+
+    /**
+     * Returns the mutual friend ids, in ascending id order, of the requested page.
+     */
+    public long[] getMutualFriendIds(Long userId1, Long userId2, int offset, int limit) {
+        Map<Long, long[]> friends = loadFriendIds(Arrays.asList(userId1, userId2));
+        return intersect(friends.get(userId1), friends.get(userId2), offset, limit);
+    }
+
+    /**
+     * Bidirectional breadth-first search over accepted friendships, always expanding the smaller
+     * frontier. A level is always finished before choosing the meeting point, so the returned path
+     * is shortest. Uncached adjacency is counted against maxEdges by the users' friend counters
+     * before it is loaded, and the search gives up once a frontier grows beyond maxFrontier users.
+     */
+    public PathResult findShortestPath(Long sourceId, Long targetId, int maxDepth, long maxEdges, int maxFrontier) {
+        if (sourceId.equals(targetId)) {
+            return PathResult.found(new long[]{sourceId});
+        }
+
+        BitSet visitedFromSource = new BitSet();
+        BitSet visitedFromTarget = new BitSet();
+        Map<Long, Long> parentFromSource = new HashMap<>();
+        Map<Long, Long> parentFromTarget = new HashMap<>();
+        List<Long> sourceFrontier = new ArrayList<>(Collections.singletonList(sourceId));
+        List<Long> targetFrontier = new ArrayList<>(Collections.singletonList(targetId));
+        visitedFromSource.set(toIndex(sourceId));
+        visitedFromTarget.set(toIndex(targetId));
+        parentFromSource.put(sourceId, null);
+        parentFromTarget.put(targetId, null);
+
+        long examined = 0;
+        int depth = 0;
+        while (depth < maxDepth && !sourceFrontier.isEmpty() && !targetFrontier.isEmpty()) {
+            boolean fromSource = sourceFrontier.size() <= targetFrontier.size();
+            List<Long> frontier = fromSource ? sourceFrontier : targetFrontier;
+            BitSet visited = fromSource ? visitedFromSource : visitedFromTarget;
+            BitSet otherVisited = fromSource ? visitedFromTarget : visitedFromSource;
+            Map<Long, Long> parents = fromSource ? parentFromSource : parentFromTarget;
+            Map<Long, Long> otherParents = fromSource ? parentFromTarget : parentFromSource;
+
+            Map<Long, long[]> friends = new HashMap<>(frontier.size() * 2);
+            List<Long> missing = new ArrayList<>();
+            for (Long userId : frontier) {
+                long[] adjacent = adjacency.get(userId);
+                if (adjacent != null) {
+                    friends.put(userId, adjacent);
+                    examined += adjacent.length;
+                } else {
+                    missing.add(userId);
+                }
+            }
+            for (int from = 0; from < missing.size() && examined <= maxEdges; from += MAX_IDS_PER_QUERY) {
+                List<Long> chunk = missing.subList(from, Math.min(from + MAX_IDS_PER_QUERY, missing.size()));
+                long estimate = userRepository.sumFriendCounts(chunk);
+                if (examined + estimate > maxEdges) {
+                    examined += estimate;
+                    break;
+                }
+                Map<Long, long[]> loaded = load(chunk, false);
+                for (long[] adjacent : loaded.values()) {
+                    examined += adjacent.length;
+                }
+                friends.putAll(loaded);
+            }
+            if (examined > maxEdges) {
+                LOG.warn("Friendship path search from {} to {} exceeded its edge budget", sourceId, targetId);
+                return PathResult.budgetExceeded();
+            }
+
+            List<Long> next = new ArrayList<>();
+            Long meeting = null;
+            int meetingDepth = Integer.MAX_VALUE;
+            for (Long userId : frontier) {
+                for (long friendId : friends.get(userId)) {
+                    int index = toIndex(friendId);
+                    if (visited.get(index)) {
+                        continue;
+                    }
+                    visited.set(index);
+                    parents.put(friendId, userId);
+                    next.add(friendId);
+                    if (next.size() > maxFrontier) {
+                        LOG.warn("Friendship path search from {} to {} exceeded its frontier budget", sourceId, targetId);
+                        return PathResult.budgetExceeded();
+                    }
+                    if (otherVisited.get(index)) {
+                        int otherDepth = chainLength(friendId, otherParents);
+                        if (otherDepth < meetingDepth) {
+                            meeting = friendId;
+                            meetingDepth = otherDepth;
+                        }
+                    }
+                }
+            }
+            depth++;
+            if (meeting != null) {
+                return PathResult.found(buildPath(meeting, parentFromSource, parentFromTarget));
+            }
+            if (fromSource) {
+                sourceFrontier = next;
+            } else {
+                targetFrontier = next;
+            }
+        }
+        return PathResult.notFound();
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event.getType() == EEventType.FRIENDSHIP_ACCEPTED) {
+                invalidate(event.getEntityId(), event.getActorId());
+            }
+        }
+    }
+
+    public void invalidate(Long... userIds) {
+        generation.incrementAndGet();
+        for (Long userId : userIds) {
+            adjacency.remove(userId);
+        }
+    }
+
+    @Override
+    public ECacheRegion getRegion() {
+        return ECacheRegion.FRIENDSHIP;
+    }
+
+    @Override
+    public void evict(long userId, long version) {
+        invalidate(userId);
+    }
+
+    @Override
+    public void evictAll() {
+        generation.incrementAndGet();
+        adjacency.clear();
+    }
+
+    /**
+     * Galloping intersection: walks the smaller array and exponentially searches the larger one,
+     * so a user with a handful of friends intersects against a hub account in O(m log(n/m)).
+     */
+    static long[] intersect(long[] a, long[] b, int offset, int limit) {
+        if (a.length > b.length) {
+            long[] tmp = a;
+            a = b;
+            b = tmp;
+        }
+        LongList out = new LongList();
+        int matched = 0;
+        int lo = 0;
+        for (int i = 0; i < a.length && lo < b.length && out.size() < limit; i++) {
+            long value = a[i];
+            int bound = 1;
+            while (lo + bound < b.length && b[lo + bound] < value) {
+                bound <<= 1;
+            }
+            int pos = Arrays.binarySearch(b, lo, Math.min(lo + bound + 1, b.length), value);
+            if (pos >= 0) {
+                if (matched++ >= offset) {
+                    out.add(value);
+                }
+                lo = pos + 1;
+            } else {
+                lo = -pos - 1;
+            }
+        }
+        return out.toArray();
+    }
+
+    private static long[] buildPath(Long meeting, Map<Long, Long> parentFromSource, Map<Long, Long> parentFromTarget) {
+        LinkedList<Long> path = new LinkedList<>();
+        for (Long node = meeting; node != null; node = parentFromSource.get(node)) {
+            path.addFirst(node);
+        }
+        for (Long node = parentFromTarget.get(meeting); node != null; node = parentFromTarget.get(node)) {
+            path.addLast(node);
+        }
+        long[] result = new long[path.size()];
+        int i = 0;
+        for (Long node : path) {
+            result[i++] = node;
+        }
+        return result;
+    }
+
+    private static int chainLength(Long node, Map<Long, Long> parents) {
+        int length = 0;
+        for (Long parent = parents.get(node); parent != null; parent = parents.get(parent)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static int toIndex(long userId) {
+        if (userId < 0 || userId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("User id out of range for friend graph: " + userId);
+        }
+        return (int) userId;
+    }
+
+    private void evictIfFull(int incoming) {
+        if (adjacency.size() + incoming <= maxEntries) {
+            return;
+        }
+        int toRemove = Math.max(incoming, maxEntries / 10);
+        Iterator<Long> iterator = adjacency.keySet().iterator();
+        while (toRemove-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+        LOG.debug("Friend graph cache full, evicted entries");
+    }
+
+    public static final class PathResult {
+
+        private final long[] path;
+        private final boolean budgetExceeded;
+
+        private PathResult(long[] path, boolean budgetExceeded) {
+            this.path = path;
+            this.budgetExceeded = budgetExceeded;
+        }
+
+        static PathResult found(long[] path) {
+            return new PathResult(path, false);
+        }
+
+        static PathResult notFound() {
+            return new PathResult(null, false);
+        }
+
+        static PathResult budgetExceeded() {
+            return new PathResult(null, true);
+        }
+
+        public long[] getPath() {
+            return path;
+        }
+
+        /**
+         * Number of friendships between the two users, or -1 if no path was found.
+         */
+        public int getDistance() {
+            return path == null ? -1 : path.length - 1;
+        }
+
+        public boolean isFound() {
+            return path != null;
+        }
+
+        public boolean isBudgetExceeded() {
+            return budgetExceeded;
+        }
+    }
+
+    private static final class LongList {
+
+        private long[] values = EMPTY;
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(8, size * 2));
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long[] toArray() {
+            return size == 0 ? EMPTY : Arrays.copyOf(values, size);
+        }
+
+        long[] toSortedArray() {
+            long[] array = toArray();
+            Arrays.sort(array);
+            return array;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.project.social_network.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Methods:
+ * Create Upcoming Partitions
+ *
+ * Keeps monthly partitions of the posts table created ahead of time once the table has been
+ * converted with db/partition-posts.sql. Rows that do not fit any monthly partition land in
+ * posts_default. Does nothing while posts is still a plain table.
+ */
+
+@Lazy(false)
+@Service
+public class PostPartitionService {
+
+    public static final Logger LOG = LoggerFactory.getLogger(PostPartitionService.class);
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+
+    @Autowired
+    public PostPartitionService(JdbcTemplate jdbcTemplate,
+                                @Value("${posts.partitions.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = Math.max(monthsAhead, 1);
+    }
+
+    @Scheduled(fixedDelayString = "${posts.partitions.check-interval-ms:86400000}")
+    public void createUpcomingPartitions() {
+        try {
+            if (!isPartitioned()) {
+                LOG.debug("Posts table is not partitioned, skipping partition maintenance");
+                return;
+            }
+            LocalDate month = LocalDate.now().withDayOfMonth(1);
+            for (int i = 0; i <= monthsAhead; i++) {
+                createPartition(month.plusMonths(i));
+            }
+        } catch (DataAccessException ex) {
+            LOG.warn("Could not create posts partitions: {}", ex.getMessage());
+        }
+    }
+
+    private boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "select exists (select 1 from pg_partitioned_table p " +
+                        "join pg_class c on c.oid = p.partrelid " +
+                        "where c.relname = 'posts' and pg_table_is_visible(c.oid))", Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    private void createPartition(LocalDate monthStart) {
+        String name = "posts_p" + monthStart.format(SUFFIX);
+        Boolean exists = jdbcTemplate.queryForObject(
+                "select to_regclass(?) is not null", Boolean.class, name);
+        if (Boolean.TRUE.equals(exists)) {
+            return;
+        }
+        LOG.info("Creating posts partition {}", name);
+        jdbcTemplate.execute("create table if not exists " + name + " partition of posts " +
+                "for values from ('" + monthStart + "') to ('" + monthStart.plusMonths(1) + "')");
+    }
+}
@@ -1,27 +1,39 @@
 package com.project.social_network.services;
 
+import com.project.social_network.cache.SingleFlight;
 import com.project.social_network.dto.PostDTO;
-import com.project.social_network.entity.Friend;
 import com.project.social_network.entity.Post;
 import com.project.social_network.entity.User;
+import com.project.social_network.entity.enums.EEventType;
 import com.project.social_network.entity.enums.EStatus;
-import com.project.social_network.exceptions.FriendRequestNotFoundException;
+import com.project.social_network.events.DomainEventPublisher;
+import com.project.social_network.exceptions.BatchTooLargeException;
 import com.project.social_network.exceptions.PostNotFoundException;
-import com.project.social_network.repository.FriendRepository;
+import com.project.social_network.invalidation.ECacheRegion;
+import com.project.social_network.invalidation.InvalidationPublisher;
 import com.project.social_network.repository.PostRepository;
 import com.project.social_network.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Methods:
@@ -29,9 +41,15 @@ import java.util.stream.Collectors;
  * Update Post,
  * Delete Post,
  * Get Post By Id,
+ * Get Posts By Ids,
  * Get Posts By User,
  * Get All Posts
- * Like Post
+ * Like Post,
+ * Get Trending Posts
+ *
+ * Feeds and per-user listings are read in keyset pages: a page holds the newest posts created
+ * before the given cursor, the createdDate of the last post of the previous page, or the newest
+ * posts when there is none.
  */
 
 @Service
@@ -39,23 +57,42 @@ public class PostService {
 
     public static final Logger LOG = LoggerFactory.getLogger(PostService.class);
 
+    // upper bound of the first page; far enough ahead to cover clock skew between nodes
+    private static final LocalDateTime NEWEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     private final PostRepository postRepository;
     private final UserRepository userRepository;
-    private final FriendRepository friendRepository;
     private final UserService userService;
+    private final TrendingService trendingService;
+    private final DomainEventPublisher eventPublisher;
+    private final InvalidationPublisher invalidationPublisher;
+    private final SingleFlight<Long, Post> postSingleFlight;
+    private final int feedWindowDays;
+    private final int maxBatchSize;
 
     @Autowired
     public PostService(PostRepository postRepository,
                        UserRepository userRepository,
-                       FriendRepository friendRepository,
-                       UserService userService) {
+                       UserService userService,
+                       TrendingService trendingService,
+                       DomainEventPublisher eventPublisher,
+                       InvalidationPublisher invalidationPublisher,
+                       @Qualifier("postSingleFlight") SingleFlight<Long, Post> postSingleFlight,
+                       @Value("${posts.feed-window-days:0}") int feedWindowDays,
+                       @Value("${posts.batch.max-ids:100}") int maxBatchSize) {
         this.postRepository = postRepository;
         this.userRepository = userRepository;
-        this.friendRepository = friendRepository;
         this.userService = userService;
+        this.trendingService = trendingService;
+        this.eventPublisher = eventPublisher;
+        this.invalidationPublisher = invalidationPublisher;
+        this.postSingleFlight = postSingleFlight;
+        this.feedWindowDays = feedWindowDays;
+        this.maxBatchSize = maxBatchSize;
     }
 
 
+    @Transactional
     public Post createPost(PostDTO postDTO, Principal principal) {
         User user = getUserByPrincipal(principal);
         Post post = new Post();
@@ -65,21 +102,36 @@ public class PostService {
         post.setStatus(EStatus.ACTIVE);
 
         LOG.info("Saving Post for User: {}", user.getUsername());
-        return postRepository.save(post);
+        Post savedPost = postRepository.save(post);
+        userRepository.addPostCount(user.getId(), 1);
+        eventPublisher.publish(EEventType.POST_CREATED, savedPost.getId(), user.getId());
+        return savedPost;
     }
 
+    @Transactional
     public Post updatePost(PostDTO postDTO, Principal principal, Long postId) {
         Post post = getPostByIdAndCurrentUser(postId, principal);
         post.setCaption(postDTO.getCaption());
 
         LOG.info("Updating Post: {}", post.getId());
-        return postRepository.save(post);
+        Post savedPost = postRepository.save(post);
+        savedPost.setRevision(postRepository.incrementRevision(postId));
+        invalidationPublisher.invalidate(ECacheRegion.POST, postId, savedPost.getRevisionOrZero());
+        return savedPost;
     }
 
+    @Transactional
     public void inactivePost(Long postId) {
         Post post = getPost(postId);
         LOG.info("Banning Post: {},", postId);
-        post.setStatus(EStatus.INACTIVE);
+        int postCountDelta = UserService.postCountDelta(post.getStatus(), EStatus.INACTIVE);
+        if (post.getStatus() != EStatus.INACTIVE) {
+            post.setStatus(EStatus.INACTIVE);
+            post.setRevision(postRepository.incrementRevision(postId));
+        }
+        userRepository.addPostCount(post.getUser().getId(), postCountDelta);
+        trendingService.removePost(postId);
+        invalidationPublisher.invalidate(ECacheRegion.POST, postId, post.getRevisionOrZero());
     }
 
     public Post getPostByIdAndCurrentUser(Long postId, Principal principal) {
@@ -92,69 +144,124 @@ public class PostService {
 
     public Post getPostById(Long postId, Principal principal) {
         User user = getUserByPrincipal(principal);
-        User friend = null;
-        Post post = getPost(postId);
-        List<Post> posts = postRepository.findAll();
-        for (Post p : posts) {
-            if (p.equals(post)) {
-                 friend = p.getUser();
-            }
-        }
+        Post post = postSingleFlight.load(postId, () -> getSharedPost(postId));
         if (post.getStatus().equals(EStatus.CLOSED)) {
-            if (friendRepository.existsByFirstUserAndSecondUser(user, friend)) {
-                return getPost(postId);
+            if (userService.areFriends(user, post.getUser())) {
+                return post;
             }
         } else if (post.getStatus().equals(EStatus.ACTIVE)) {
-            return getPost(postId);
+            return post;
         }
         return null;
     }
 
-    public List<Post> getAllPostsOfFriends(Principal principal) {
+    /**
+     * Batch variant of getPostById: posts the current user may not see and unknown ids are
+     * left out, the rest are returned in request order.
+     */
+    public List<Post> getPostsByIds(List<Long> postIds, Principal principal) {
+        Set<Long> ids = new LinkedHashSet<>(postIds);
+        if (ids.size() > maxBatchSize) {
+            throw new BatchTooLargeException("At most " + maxBatchSize + " post ids can be requested at once");
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
         User user = getUserByPrincipal(principal);
-        List<User> friendUsers = userService.getFriendsByUser(user.getUsername(), principal);
-        List<Post> posts = new ArrayList<>();
+        LOG.info("Getting {} posts by ids for user {}", ids.size(), user.getUsername());
 
-        for (User friend : friendUsers) {
-            posts.addAll(postRepository.findAllByUser(friend)
-                    .stream()
-                    .filter(p -> p.getStatus().equals(EStatus.ACTIVE))
-                    .collect(Collectors.toList()));
+        Map<Long, Post> postsById = new HashMap<>();
+        Set<Long> closedOwnerIds = new HashSet<>();
+        for (Post post : postRepository.findAllWithUserByIdIn(ids)) {
+            postsById.put(post.getId(), post);
+            if (post.getStatus() == EStatus.CLOSED) {
+                closedOwnerIds.add(post.getUser().getId());
+            }
+        }
+        Set<Long> friendIds = userService.getFriendIdsAmong(user, closedOwnerIds);
+
+        List<Post> posts = new ArrayList<>(postsById.size());
+        for (Long id : ids) {
+            Post post = postsById.get(id);
+            if (post == null) {
+                continue;
+            }
+            if (post.getStatus() == EStatus.ACTIVE
+                    || (post.getStatus() == EStatus.CLOSED && friendIds.contains(post.getUser().getId()))) {
+                posts.add(post);
+            }
         }
-        LOG.info("Getting friends posts of user {}", user.getUsername());
         return posts;
     }
 
-    public List<Post> getAllPostsForCurrentUser(Principal principal) {
+    public List<Post> getAllPostsOfFriends(Principal principal, LocalDateTime before, int size) {
+        User user = getUserByPrincipal(principal);
+        List<User> friendUsers = userService.getFriendsByUser(user.getUsername(), principal);
+        LOG.info("Getting friends posts of user {}", user.getUsername());
+        if (friendUsers.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return postRepository.findPageByUsersAndStatus(friendUsers, EStatus.ACTIVE, feedSince(), cursor(before),
+                PageRequest.of(0, size));
+    }
+
+    public List<Post> getAllPostsForCurrentUser(Principal principal, LocalDateTime before, int size) {
         User user = getUserByPrincipal(principal);
         LOG.info("Getting posts of current user {}", user.getUsername());
-        return postRepository.findAllByUserOrderByCreatedDateDesc(user);
+        return postRepository.findPageByUser(user, cursor(before), PageRequest.of(0, size));
     }
 
-    public List<Post> getPostsByUsername(String username, Principal principal) {
+    public List<Post> getPostsByUsername(String username, Principal principal, LocalDateTime before, int size) {
         User currentUser = getUserByPrincipal(principal);
         User user = getUserByUsername(username);
 
-        List<Post> posts = postRepository.findAllByUserOrderByCreatedDateDesc(user);
-
-        Friend friendRequest1 = getFriendRequest(currentUser, user);
-        Friend friendRequest2 = getFriendRequest(user, currentUser);
-
-        if (friendRequest1.getIsAccepted() || friendRequest2.getIsAccepted()) {
+        if (userService.areFriends(currentUser, user)) {
             LOG.info("Getting posts of user {}", user.getUsername());
-            return posts;
+            return postRepository.findPageByUser(user, cursor(before), PageRequest.of(0, size));
         }
         return Collections.emptyList();
     }
 
-    public List<Post> getAllPosts() {
+    public List<Post> getAllPosts(LocalDateTime before, int size) {
         LOG.info("Getting all posts");
-        return postRepository.findAllByOrderByCreatedDateDesc()
-                .stream()
-                .filter(p -> p.getStatus().equals(EStatus.ACTIVE))
-                .collect(Collectors.toList());
+        return postRepository.findPageByStatus(EStatus.ACTIVE, feedSince(), cursor(before), PageRequest.of(0, size));
+    }
+
+    private static LocalDateTime cursor(LocalDateTime before) {
+        return before == null ? NEWEST : before;
+    }
+
+    /**
+     * Oldest creation date shown in feeds; posts.feed-window-days=0, the default, shows the whole
+     * history, older partitions are only read when a client pages that far back. A positive window
+     * hides older posts from feeds altogether.
+     */
+    private LocalDateTime feedSince() {
+        if (feedWindowDays <= 0) {
+            return LocalDateTime.of(1970, 1, 1, 0, 0);
+        }
+        return LocalDateTime.now().minusDays(feedWindowDays);
+    }
+
+    public List<Post> getTrendingPosts(int limit) {
+        List<Long> postIds = trendingService.getTopPostIds(limit);
+        Map<Long, Post> postsById = new HashMap<>();
+        for (Post post : postRepository.findAllById(postIds)) {
+            postsById.put(post.getId(), post);
+        }
+
+        List<Post> posts = new ArrayList<>(postIds.size());
+        for (Long postId : postIds) {
+            Post post = postsById.get(postId);
+            if (post != null && post.getStatus().equals(EStatus.ACTIVE)) {
+                posts.add(post);
+            }
+        }
+        LOG.info("Getting trending posts");
+        return posts;
     }
 
+    @Transactional
     public Post likePost(Long postId, String username) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new PostNotFoundException("Post not found with ID " + postId));
@@ -171,7 +278,12 @@ public class PostService {
             post.getLikedUsers().add(username);
         }
         LOG.info("User {} likes post {}", username, postId);
-        return postRepository.save(post);
+        Post savedPost = postRepository.save(post);
+        savedPost.setRevision(postRepository.incrementRevision(postId));
+        invalidationPublisher.invalidate(ECacheRegion.POST, postId, savedPost.getRevisionOrZero());
+        eventPublisher.publish(userLiked.isPresent() ? EEventType.POST_UNLIKED : EEventType.POST_LIKED,
+                postId, null);
+        return savedPost;
     }
 
     private User getUserByUsername(String username) {
@@ -179,17 +291,21 @@ public class PostService {
                 orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
-    private Friend getFriendRequest(User user1, User user2) {
-        return friendRepository.findByFirstUserAndSecondUser(user1, user2).
-                orElseThrow(() -> new FriendRequestNotFoundException("Friend Request not found"));
-    }
-
     private User getUserByPrincipal(Principal principal) {
         String username = principal.getName();
         return userRepository.findUserByUsername(username).
                 orElseThrow(() -> new UsernameNotFoundException("User not found with username " + username));
     }
 
+    // the post may be handed to other request threads, so everything PostFacade reads is fetched up front
+    private Post getSharedPost(Long postId) {
+        List<Post> posts = postRepository.findAllWithUserByIdIn(Collections.singletonList(postId));
+        if (posts.isEmpty()) {
+            throw new PostNotFoundException("Post not found with ID " + postId);
+        }
+        return posts.get(0);
+    }
+
     private Post getPost(Long postId) {
         return postRepository.findById(postId)
                 .orElseThrow(() -> new PostNotFoundException("Post not found with ID " + postId));
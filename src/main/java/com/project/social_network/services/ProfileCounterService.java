@@ -0,0 +1,52 @@
+package com.project.social_network.services;
+
+import com.project.social_network.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Methods:
+ * Reconcile Profile Counters
+ *
+ * The profile counters on users are kept up to date by UserService and PostService. This job
+ * recounts them from friendships and posts in id-range chunks and fixes any drift, e.g. from
+ * rows changed outside the application. A counter changed concurrently with its chunk may be
+ * rewritten with the slightly older count; the next run corrects it.
+ */
+
+@Lazy(false)
+@Service
+public class ProfileCounterService {
+
+    public static final Logger LOG = LoggerFactory.getLogger(ProfileCounterService.class);
+
+    private final UserRepository userRepository;
+    private final int chunkSize;
+
+    @Autowired
+    public ProfileCounterService(UserRepository userRepository,
+                                 @Value("${profile-counters.reconcile-chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.chunkSize = Math.max(chunkSize, 1);
+    }
+
+    @Scheduled(initialDelayString = "${profile-counters.reconcile-initial-delay-ms:60000}",
+            fixedDelayString = "${profile-counters.reconcile-interval-ms:21600000}")
+    public void reconcile() {
+        long maxId = userRepository.findMaxId();
+        int corrected = 0;
+        for (long fromId = 0; fromId <= maxId; fromId += chunkSize) {
+            corrected += userRepository.reconcileCounters(fromId, fromId + chunkSize);
+        }
+        if (corrected > 0) {
+            LOG.warn("Corrected profile counters of {} users", corrected);
+        } else {
+            LOG.debug("Profile counters are consistent");
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.project.social_network.services;
+
+import com.project.social_network.entity.RefreshToken;
+import com.project.social_network.entity.User;
+import com.project.social_network.entity.enums.EStatus;
+import com.project.social_network.exceptions.InvalidRefreshTokenException;
+import com.project.social_network.repository.RefreshTokenRepository;
+import com.project.social_network.repository.UserRepository;
+import com.project.social_network.security.SecurityConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Methods:
+ * Issue Refresh Token,
+ * Rotate Refresh Token,
+ * Revoke Refresh Token,
+ * Revoke All Refresh Tokens Of User
+ *
+ * Only a SHA-256 digest of each token is stored, so checking a token is one unique-index
+ * lookup instead of a BCrypt verification.
+ */
+
+@Lazy(false)
+@Service
+public class RefreshTokenService {
+
+    public static final Logger LOG = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+    }
+
+    public String issueToken(Long userId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setUserId(userId);
+        refreshToken.setExpiryDate(LocalDateTime.now().plusNanos(SecurityConstants.REFRESH_EXPIRATION_TIME * 1_000_000L));
+        refreshToken.setRevoked(false);
+
+        LOG.info("Issuing refresh token for user {}", userId);
+        refreshTokenRepository.save(refreshToken);
+        return token;
+    }
+
+    /**
+     * Consumes the given refresh token and returns its owner. The token is revoked with a
+     * conditional update so that each refresh token can only be used once, even by concurrent
+     * requests; callers issue a replacement. Presenting a revoked token revokes every token of
+     * its owner, a reused token means it was stolen or the client is replaying it.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public User consumeToken(String token) {
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token not found"));
+
+        if (refreshToken.getExpiryDate().isBefore(LocalDateTime.now())) {
+            throw new InvalidRefreshTokenException("Refresh token expired");
+        }
+        if (refreshTokenRepository.revokeIfActive(refreshToken.getId()) == 0) {
+            LOG.warn("Reuse of revoked refresh token for user {}", refreshToken.getUserId());
+            refreshTokenRepository.revokeAllByUserId(refreshToken.getUserId());
+            throw new InvalidRefreshTokenException("Refresh token was revoked");
+        }
+
+        User user = userRepository.findUserById(refreshToken.getUserId())
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token owner not found"));
+        if (user.getStatus() == EStatus.INACTIVE) {
+            LOG.warn("Refresh attempt for deleted account {}", user.getId());
+            refreshTokenRepository.revokeAllByUserId(user.getId());
+            throw new InvalidRefreshTokenException("Account is deleted");
+        }
+        return user;
+    }
+
+    @Transactional
+    public void revokeToken(String token) {
+        refreshTokenRepository.findByTokenHash(hash(token))
+                .ifPresent(refreshToken -> {
+                    LOG.info("Revoking refresh token of user {}", refreshToken.getUserId());
+                    refreshToken.setRevoked(true);
+                });
+    }
+
+    public void revokeAllTokens(Long userId) {
+        LOG.info("Revoking all refresh tokens of user {}", userId);
+        refreshTokenRepository.revokeAllByUserId(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${security.refresh-token.cleanup-interval-ms:3600000}")
+    public void deleteExpiredTokens() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        LOG.debug("Deleted {} expired refresh tokens", deleted);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
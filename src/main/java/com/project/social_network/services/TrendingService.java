@@ -0,0 +1,204 @@
+package com.project.social_network.services;
+
+import com.project.social_network.events.DomainEvent;
+import com.project.social_network.events.DomainEventListener;
+import com.project.social_network.events.RecentEventIds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.UnaryOperator;
+
+/**
+ * Methods:
+ * Record Like,
+ * Record Unlike,
+ * Record Comment,
+ * Remove Post,
+ * Get Top Post Ids
+ *
+ * Scores use forward decay: an interaction at time t adds weight * 2^((t - epoch) / halfLife),
+ * kept in log space. Older scores never need rewriting because every score is relative to
+ * the same epoch, so each update is a single O(log n) reposition in the sorted set.
+ * Events do not say when the withdrawn like was given, so an unlike removes the average weight
+ * of the post's current likes. That is exact for the last like and never takes more than the
+ * likes contributed; comments are untouched.
+ * Likes and comments arrive as committed domain events; scores are not idempotent, so events
+ * already applied are skipped by outbox id when a batch is replayed.
+ */
+
+@Service
+public class TrendingService implements DomainEventListener {
+
+    public static final Logger LOG = LoggerFactory.getLogger(TrendingService.class);
+
+    private static final double LIKE_WEIGHT = 1.0;
+    private static final double COMMENT_WEIGHT = 2.0;
+
+    private final ConcurrentHashMap<Long, Entry> scores = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>();
+    private final long epochMillis = System.currentTimeMillis();
+    private final double halfLifeMillis;
+    private final int maxSize;
+    private final RecentEventIds appliedEvents;
+
+    public TrendingService(@Value("${trending.half-life-hours:6}") double halfLifeHours,
+                           @Value("${trending.max-size:1000}") int maxSize,
+                           @Value("${trending.applied-events:100000}") int appliedEvents) {
+        this.halfLifeMillis = halfLifeHours * 3_600_000;
+        this.maxSize = maxSize;
+        this.appliedEvents = new RecentEventIds(appliedEvents);
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (appliedEvents.contains(event.getOutboxId())) {
+                continue;
+            }
+            switch (event.getType()) {
+                case POST_LIKED:
+                    recordLike(event.getEntityId());
+                    break;
+                case POST_UNLIKED:
+                    recordUnlike(event.getEntityId());
+                    break;
+                case COMMENT_CREATED:
+                    recordComment(event.getEntityId());
+                    break;
+                default:
+                    break;
+            }
+            appliedEvents.add(event.getOutboxId());
+        }
+    }
+
+    public void recordLike(Long postId) {
+        double logWeight = logWeight(LIKE_WEIGHT);
+        update(postId, current -> current == null
+                ? new Entry(postId, logWeight, Double.NEGATIVE_INFINITY, 1)
+                : new Entry(postId, logAddExp(current.logLikeScore, logWeight), current.logCommentScore,
+                current.likes + 1));
+    }
+
+    public void recordUnlike(Long postId) {
+        update(postId, current -> {
+            if (current == null || current.likes == 0) {
+                return current;
+            }
+            int likes = current.likes - 1;
+            double logLikeScore = likes == 0
+                    ? Double.NEGATIVE_INFINITY
+                    : current.logLikeScore + Math.log((double) likes / current.likes);
+            if (likes == 0 && current.logCommentScore == Double.NEGATIVE_INFINITY) {
+                return null;
+            }
+            return new Entry(postId, logLikeScore, current.logCommentScore, likes);
+        });
+    }
+
+    public void recordComment(Long postId) {
+        double logWeight = logWeight(COMMENT_WEIGHT);
+        update(postId, current -> current == null
+                ? new Entry(postId, Double.NEGATIVE_INFINITY, logWeight, 0)
+                : new Entry(postId, current.logLikeScore, logAddExp(current.logCommentScore, logWeight),
+                current.likes));
+    }
+
+    public void removePost(Long postId) {
+        scores.computeIfPresent(postId, (id, entry) -> {
+            ranking.remove(entry);
+            return null;
+        });
+    }
+
+    public List<Long> getTopPostIds(int limit) {
+        List<Long> postIds = new ArrayList<>(Math.min(limit, ranking.size()));
+        Iterator<Entry> iterator = ranking.iterator();
+        while (iterator.hasNext() && postIds.size() < limit) {
+            postIds.add(iterator.next().postId);
+        }
+        return postIds;
+    }
+
+    private double logWeight(double weight) {
+        return Math.log(weight) + (System.currentTimeMillis() - epochMillis) * Math.log(2) / halfLifeMillis;
+    }
+
+    private void update(Long postId, UnaryOperator<Entry> change) {
+        scores.compute(postId, (id, current) -> {
+            Entry next = change.apply(current);
+            if (next != current) {
+                if (current != null) {
+                    ranking.remove(current);
+                }
+                if (next != null) {
+                    ranking.add(next);
+                }
+            }
+            return next;
+        });
+        trim();
+    }
+
+    private void trim() {
+        while (ranking.size() > maxSize) {
+            Entry lowest = ranking.pollLast();
+            if (lowest == null) {
+                return;
+            }
+            scores.remove(lowest.postId, lowest);
+        }
+    }
+
+    private static double logAddExp(double a, double b) {
+        if (a == Double.NEGATIVE_INFINITY || b == Double.NEGATIVE_INFINITY) {
+            return Math.max(a, b);
+        }
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+
+        private final long postId;
+        private final double logLikeScore;
+        private final double logCommentScore;
+        private final int likes;
+        private final double logScore;
+
+        private Entry(long postId, double logLikeScore, double logCommentScore, int likes) {
+            this.postId = postId;
+            this.logLikeScore = logLikeScore;
+            this.logCommentScore = logCommentScore;
+            this.likes = likes;
+            this.logScore = logAddExp(logLikeScore, logCommentScore);
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byScore = Double.compare(other.logScore, logScore);
+            return byScore != 0 ? byScore : Long.compare(postId, other.postId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) o;
+            return postId == other.postId && logScore == other.logScore;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(postId) * 31 + Double.hashCode(logScore);
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package com.project.social_network.services;
 
+import com.project.social_network.dto.FriendRequestDTO;
+import com.project.social_network.dto.FriendRequestsPageDTO;
+import com.project.social_network.dto.ProfileSummaryDTO;
 import com.project.social_network.dto.UserDTO;
 import com.project.social_network.entity.Friend;
 import com.project.social_network.entity.Post;
 import com.project.social_network.entity.User;
+import com.project.social_network.entity.enums.EFriendshipState;
 import com.project.social_network.entity.enums.ERole;
+import com.project.social_network.entity.enums.EEventType;
 import com.project.social_network.entity.enums.EStatus;
+import com.project.social_network.events.DomainEventPublisher;
 import com.project.social_network.exceptions.FriendRequestNotFoundException;
 import com.project.social_network.exceptions.UserExistException;
+import com.project.social_network.invalidation.ECacheRegion;
+import com.project.social_network.invalidation.InvalidationPublisher;
 import com.project.social_network.payload.request.SignupRequest;
 import com.project.social_network.repository.FriendRepository;
 import com.project.social_network.repository.PostRepository;
@@ -15,13 +23,22 @@ import com.project.social_network.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.security.Principal;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Methods:
@@ -36,8 +53,13 @@ import java.util.List;
  * Get User By Username,
  * Get User By Principal,
  * Get Friends By User,
+ * Get Mutual Friends,
+ * Get Friendship Path,
+ * Get Profile Summary,
  * Get Sent Friend Requests By User,
  * Get Retrieved Friend Requests By User,
+ * Get Pending Friend Request Inbox,
+ * Get Pending Friend Request Outbox,
  * Get All Users
  */
 
@@ -49,17 +71,38 @@ public class UserService {
     private final UserRepository userRepository;
     private final FriendRepository friendRepository;
     private final PostRepository postRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordEncoder passwordEncoder;
+    private final FriendGraphService friendGraphService;
+    private final DomainEventPublisher eventPublisher;
+    private final ArchivalService archivalService;
+    private final InvalidationPublisher invalidationPublisher;
+    private final int maxPathDepth;
+    private final long maxPathEdges;
+    private final int maxPathFrontier;
 
     @Autowired
     public UserService(UserRepository userRepository,
                        FriendRepository friendRepository,
                        PostRepository postRepository,
-                       BCryptPasswordEncoder passwordEncoder) {
+                       PasswordEncoder passwordEncoder,
+                       FriendGraphService friendGraphService,
+                       DomainEventPublisher eventPublisher,
+                       ArchivalService archivalService,
+                       InvalidationPublisher invalidationPublisher,
+                       @Value("${friend-graph.max-path-depth:6}") int maxPathDepth,
+                       @Value("${friend-graph.max-path-edges:200000}") long maxPathEdges,
+                       @Value("${friend-graph.max-path-frontier:20000}") int maxPathFrontier) {
         this.userRepository = userRepository;
         this.friendRepository = friendRepository;
         this.postRepository = postRepository;
         this.passwordEncoder = passwordEncoder;
+        this.friendGraphService = friendGraphService;
+        this.eventPublisher = eventPublisher;
+        this.archivalService = archivalService;
+        this.invalidationPublisher = invalidationPublisher;
+        this.maxPathDepth = maxPathDepth;
+        this.maxPathEdges = maxPathEdges;
+        this.maxPathFrontier = maxPathFrontier;
     }
 
     public void saveUser(SignupRequest userIn) {
@@ -94,6 +137,7 @@ public class UserService {
         try {
             LOG.info("Update User Info {}", userDTO.getEmail());
             userRepository.save(user);
+            invalidationPublisher.invalidate(ECacheRegion.USER, user.getId(), 0);
         } catch (Exception ex) {
             LOG.error("Error during updating. {}", ex.getMessage());
             throw new UsernameNotFoundException("The user " + user.getUsername() + " does not exist.");
@@ -101,82 +145,139 @@ public class UserService {
         return user;
     }
 
+    @Transactional
     public void inactiveAccount(Principal principal) {
         User user = getUserByPrincipal(principal);
         List<Post> posts = postRepository.findAllByUserOrderByCreatedDateDesc(user);
+        int postCountDelta = 0;
         for (Post post : posts) {
             LOG.info("Deleting post {}", post.getId());
-            post.setStatus(EStatus.INACTIVE);
+            postCountDelta += postCountDelta(post.getStatus(), EStatus.INACTIVE);
+            setPostStatus(post, EStatus.INACTIVE);
+            invalidationPublisher.invalidate(ECacheRegion.POST, post.getId(), post.getRevisionOrZero());
         }
         LOG.info("Deleting user account {}", user.getUsername());
         user.setStatus(EStatus.INACTIVE);
+        userRepository.addPostCount(user.getId(), postCountDelta);
+        invalidationPublisher.invalidate(ECacheRegion.USER, user.getId(), 0);
     }
 
+    @Transactional
     public void openAccount(Principal principal) {
         User user = getUserByPrincipal(principal);
+        archivalService.restorePostsOfUser(user.getId());
         List<Post> posts = postRepository.findAllByUserOrderByCreatedDateDesc(user);
+        int postCountDelta = 0;
         for (Post post : posts) {
             LOG.info("Active post {}", post.getId());
-            post.setStatus(EStatus.ACTIVE);
+            postCountDelta += postCountDelta(post.getStatus(), EStatus.ACTIVE);
+            setPostStatus(post, EStatus.ACTIVE);
+            invalidationPublisher.invalidate(ECacheRegion.POST, post.getId(), post.getRevisionOrZero());
         }
         LOG.info("Opening user account {}", user.getUsername());
         user.setStatus(EStatus.ACTIVE);
+        userRepository.addPostCount(user.getId(), postCountDelta);
+        invalidationPublisher.invalidate(ECacheRegion.USER, user.getId(), 0);
     }
 
+    @Transactional
     public void closeAccount(Principal principal) {
         User user = getUserByPrincipal(principal);
         List<Post> posts = postRepository.findAllByUserOrderByCreatedDateDesc(user);
+        int postCountDelta = 0;
         for (Post post : posts) {
             LOG.info("Inactive post {}", post.getId());
-            post.setStatus(EStatus.CLOSED);
+            postCountDelta += postCountDelta(post.getStatus(), EStatus.CLOSED);
+            setPostStatus(post, EStatus.CLOSED);
+            invalidationPublisher.invalidate(ECacheRegion.POST, post.getId(), post.getRevisionOrZero());
         }
         LOG.info("Closing user account {}", user.getUsername());
         user.setStatus(EStatus.CLOSED);
+        userRepository.addPostCount(user.getId(), postCountDelta);
+        invalidationPublisher.invalidate(ECacheRegion.USER, user.getId(), 0);
+    }
+
+    private void setPostStatus(Post post, EStatus status) {
+        if (post.getStatus() != status) {
+            post.setStatus(status);
+            post.setRevision(postRepository.incrementRevision(post.getId()));
+        }
     }
 
     public User getUser(String username, Principal principal) {
         User currentUser = getUserByPrincipal(principal);
         User user = getUserByUsername(username);
-        List<User> userFriends = getFriendsByUser(username, principal);
-        if (user.getStatus().equals(EStatus.CLOSED) && userFriends.contains(currentUser)) {
+        if (user.getStatus().equals(EStatus.CLOSED) && areFriends(currentUser, user)) {
             return user;
         }
         return currentUser;
     }
 
+    @Transactional
     public User sendFriendRequest(String username, Principal principal) {
         User currentUser = getUserByPrincipal(principal);
         User friend = getUserByUsername(username);
 
-        Friend friendRequest = new Friend();
-
-        if (!friendRepository.existsByFirstUserAndSecondUser(currentUser, friend)) {
-            friendRequest.setFirstUser(currentUser);
-            friendRequest.setSecondUser(friend);
-            friendRequest.setIsAccepted(false);
+        if (!friendRepository.findByUserIds(currentUser.getId(), friend.getId()).isPresent()) {
+            Friend friendRequest = new Friend(currentUser.getId(), friend.getId());
 
             LOG.info("Sending Friend Request from {} to {}", currentUser.getUsername(),
                     friend.getUsername());
             friendRepository.save(friendRequest);
+            userRepository.addSentRequestCount(currentUser.getId(), 1);
+            userRepository.addReceivedRequestCount(friend.getId(), 1);
         }
 
         return friend;
     }
 
+    @Transactional
     public User acceptFriendRequest(String username, Principal principal) {
         User currentUser = getUserByPrincipal(principal);
         User friend = getUserByUsername(username);
 
-        Friend friendRequest = friendRepository.findByFirstUserAndSecondUser(friend, currentUser).
-                orElseThrow(() -> new FriendRequestNotFoundException("Friend Request not found"));
-        if (Boolean.FALSE.equals(friendRequest.getIsAccepted())) {
+        Friend friendRequest = friendRepository.findByUserIds(friend.getId(), currentUser.getId())
+                .filter(f -> f.getRequesterId().equals(friend.getId()))
+                .orElseThrow(() -> new FriendRequestNotFoundException("Friend Request not found"));
+        if (friendRequest.getState() == EFriendshipState.PENDING) {
             LOG.info("Accepting Friend Request from {} to {}", friend.getUsername(),
                     currentUser.getUsername());
-            friendRequest.setIsAccepted(true);
+            friendRequest.setState(EFriendshipState.ACCEPTED);
+            friendRepository.save(friendRequest);
+            userRepository.addSentRequestCount(friend.getId(), -1);
+            userRepository.addReceivedRequestCount(currentUser.getId(), -1);
+            userRepository.addFriendCount(friend.getId(), 1);
+            userRepository.addFriendCount(currentUser.getId(), 1);
+            friendGraphService.invalidate(currentUser.getId(), friend.getId());
+            invalidationPublisher.invalidate(ECacheRegion.FRIENDSHIP, currentUser.getId(), 0);
+            invalidationPublisher.invalidate(ECacheRegion.FRIENDSHIP, friend.getId(), 0);
+            eventPublisher.publish(EEventType.FRIENDSHIP_ACCEPTED, friend.getId(), currentUser.getId());
         }
         return friend;
     }
 
+    /**
+     * Counters of the given user in a single row read; pending request counts are only
+     * included on the current user's own profile. Inactive users, and closed users to anyone
+     * but their friends, are reported as not found, as in getUser.
+     */
+    public ProfileSummaryDTO getProfileSummary(String username, Principal principal) {
+        ProfileSummaryDTO summary = userRepository.findSummaryByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        if (summary.getUsername().equals(principal.getName())) {
+            return summary;
+        }
+        boolean visible = summary.getStatus() == EStatus.ACTIVE
+                || (summary.getStatus() == EStatus.CLOSED
+                && friendRepository.areFriends(getUserByPrincipal(principal).getId(), summary.getId()));
+        if (!visible) {
+            throw new UsernameNotFoundException("User not found");
+        }
+        summary.setSentRequestCount(null);
+        summary.setReceivedRequestCount(null);
+        return summary;
+    }
+
     public List<User> getFriendsByCurrentUser(Principal principal) {
         User currentUser = getUserByPrincipal(principal);
         LOG.info("Getting friends of current user: {}", currentUser.getUsername());
@@ -185,26 +286,66 @@ public class UserService {
 
     public List<User> getFriendsByUser(String username, Principal principal) {
         User user = getUserByUsername(username);
-        if (friendRepository.existsByFirstUserAndSecondUser(user, getCurrentUser(principal)) &&
-        (getFriendRequest(user, getCurrentUser(principal)).getIsAccepted() ||
-                getFriendRequest(getCurrentUser(principal), user).getIsAccepted())) {
+        if (areFriends(user, getCurrentUser(principal))) {
             LOG.info("Getting friends of user: {}", user.getUsername());
             return getFriends(user);
         }
         return getFriendsByCurrentUser(principal);
     }
 
-    public List<User> getSentFriendRequests(Principal principal) {
+    public int countMutualFriends(String username, Principal principal) {
+        User currentUser = getUserByPrincipal(principal);
+        User user = getUserByUsername(username);
+        return friendGraphService.countMutualFriends(currentUser.getId(), user.getId());
+    }
+
+    public List<User> getMutualFriends(String username, Principal principal, int page, int size) {
         User currentUser = getUserByPrincipal(principal);
+        User user = getUserByUsername(username);
+        // as a long, a large page number must not wrap around to a negative offset
+        int offset = (int) Math.min((long) page * size, Integer.MAX_VALUE);
+        long[] ids = friendGraphService.getMutualFriendIds(currentUser.getId(), user.getId(), offset, size);
+        List<User> mutualFriends = getUsersByIds(ids);
+        LOG.info("Getting mutual friends of {} and {}", currentUser.getUsername(), user.getUsername());
+        return mutualFriends;
+    }
 
-        List<Friend> friendRequests = friendRepository.findByFirstUser(currentUser);
-        List<User> friends = new ArrayList<>();
+    /**
+     * Finds the shortest friendship path from the current user to the given one within the
+     * configured depth and work budget. Only its length may be shown to the caller, the users
+     * in between are not necessarily visible to them.
+     */
+    public FriendGraphService.PathResult getFriendshipPath(String username, Principal principal) {
+        User currentUser = getUserByPrincipal(principal);
+        User user = getUserByUsername(username);
+        LOG.info("Getting friendship path from {} to {}", currentUser.getUsername(), user.getUsername());
+        return friendGraphService.findShortestPath(currentUser.getId(), user.getId(), maxPathDepth, maxPathEdges,
+                maxPathFrontier);
+    }
 
-        for (Friend friendRequest : friendRequests) {
-            if (Boolean.FALSE.equals(friendRequest.getIsAccepted())) {
-                friends.add(friendRequest.getSecondUser());
+    public List<User> getUsersByIds(long[] ids) {
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        Map<Long, User> usersById = new HashMap<>();
+        for (User user : userRepository.findAllById(idList)) {
+            usersById.put(user.getId(), user);
+        }
+        List<User> users = new ArrayList<>(ids.length);
+        for (Long id : idList) {
+            User user = usersById.get(id);
+            if (user != null) {
+                users.add(user);
             }
         }
+        return users;
+    }
+
+    public List<User> getSentFriendRequests(Principal principal) {
+        User currentUser = getUserByPrincipal(principal);
+
+        List<User> friends = userRepository.findAllById(friendRepository.findSentRequestIds(currentUser.getId()));
         LOG.info("Getting friends sent requests of user: {}", currentUser.getUsername());
         return friends;
     }
@@ -212,23 +353,60 @@ public class UserService {
     public List<User> getRetrievedFriendRequests(Principal principal) {
         User currentUser = getUserByPrincipal(principal);
 
-        List<Friend> friendRequests = friendRepository.findBySecondUser(currentUser);
-        List<User> friends = new ArrayList<>();
-
-        for (Friend friendRequest : friendRequests) {
-            if (Boolean.FALSE.equals(friendRequest.getIsAccepted())) {
-                friends.add(friendRequest.getFirstUser());
-            }
-        }
+        List<User> friends = userRepository.findAllById(friendRepository.findRetrievedRequestIds(currentUser.getId()));
         LOG.info("Getting friends retrieved requests of user: {}", currentUser.getUsername());
         return friends;
     }
 
+    public FriendRequestsPageDTO getPendingInbox(Principal principal, int page, int size) {
+        User currentUser = getUserByPrincipal(principal);
+        LOG.info("Getting pending friend request inbox of user: {}", currentUser.getUsername());
+        return toRequestsPage(friendRepository.findPendingInbox(currentUser.getId(), PageRequest.of(page, size)),
+                currentUser.getReceivedRequestCount(), page, size);
+    }
+
+    public FriendRequestsPageDTO getPendingOutbox(Principal principal, int page, int size) {
+        User currentUser = getUserByPrincipal(principal);
+        LOG.info("Getting pending friend request outbox of user: {}", currentUser.getUsername());
+        return toRequestsPage(friendRepository.findPendingOutbox(currentUser.getId(), PageRequest.of(page, size)),
+                currentUser.getSentRequestCount(), page, size);
+    }
+
+    private FriendRequestsPageDTO toRequestsPage(List<FriendRequestDTO> requests, int total, int page, int size) {
+        FriendRequestsPageDTO requestsPage = new FriendRequestsPageDTO();
+        requestsPage.setTotal(total);
+        requestsPage.setPage(page);
+        requestsPage.setSize(size);
+        requestsPage.setRequests(requests);
+        return requestsPage;
+    }
+
     public List<User> getAllUsers() {
         LOG.info("Getting all users");
         return userRepository.findAll();
     }
 
+    /**
+     * Change of a user's post count when one of their posts moves between the given statuses;
+     * every post that is not INACTIVE is counted.
+     */
+    static int postCountDelta(EStatus from, EStatus to) {
+        boolean before = from != EStatus.INACTIVE;
+        boolean after = to != EStatus.INACTIVE;
+        return before == after ? 0 : (after ? 1 : -1);
+    }
+
+    public boolean areFriends(User user1, User user2) {
+        return friendRepository.areFriends(user1.getId(), user2.getId());
+    }
+
+    public Set<Long> getFriendIdsAmong(User user, Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(friendRepository.findFriendIdsAmong(user.getId(), userIds));
+    }
+
     public User getCurrentUser(Principal principal) {
         return getUserByPrincipal(principal);
     }
@@ -249,27 +427,7 @@ public class UserService {
                 orElseThrow(() -> new UsernameNotFoundException("User not found with username " + username));
     }
 
-    private Friend getFriendRequest(User user1, User user2) {
-        return friendRepository.findByFirstUserAndSecondUser(user1, user2)
-                .orElseThrow(() -> new FriendRequestNotFoundException("There is no friendship between " +
-                        "user "+ user1.getUsername() + " and " + user2.getUsername() ));
-    }
-
     private List<User> getFriends(User user) {
-        List<Friend> friendsByFirstUser = friendRepository.findByFirstUser(user);
-        List<Friend> friendsBySecondUser = friendRepository.findBySecondUser(user);
-        List<User> friendUsers = new ArrayList<>();
-
-        for (Friend friend : friendsByFirstUser) {
-            if (Boolean.TRUE.equals(friend.getIsAccepted())) {
-                friendUsers.add(getUserById(friend.getSecondUser().getId()));
-            }
-        }
-        for (Friend friend : friendsBySecondUser) {
-            if (Boolean.TRUE.equals(friend.getIsAccepted())) {
-                friendUsers.add(getUserById(friend.getFirstUser().getId()));
-            }
-        }
-        return friendUsers;
+        return userRepository.findAllById(friendRepository.findFriendIds(user.getId(), EFriendshipState.ACCEPTED));
     }
 }
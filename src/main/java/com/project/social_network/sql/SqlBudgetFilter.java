@@ -0,0 +1,142 @@
+package com.project.social_network.sql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements of every request, and logs the route, the count and the call sites
+ * of repeated statement shapes when the route's budget is exceeded. The log covers the whole
+ * request; by then the response is usually committed, so with sql-budget.fail-on-violation it is
+ * SqlCountResponseAdvice that fails the request, with the statements issued before the body is
+ * written. Statements issued while the body is serialized are only logged.
+ * Async requests are checked when they complete; the statistics travel with the request, so the
+ * bulkhead thread running the handler and the async dispatch writing the body count too.
+ */
+public class SqlBudgetFilter extends OncePerRequestFilter implements Ordered {
+
+    public static final Logger LOG = LoggerFactory.getLogger(SqlBudgetFilter.class);
+
+    public static final String SQL_COUNT_HEADER = "X-SQL-Count";
+    public static final String STATISTICS_ATTRIBUTE = SqlBudgetFilter.class.getName() + ".statistics";
+
+    private final SqlBudgetProperties properties;
+
+    public SqlBudgetFilter(SqlBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Runs ahead of the security filter chain so statements issued during authentication count too.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 5;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            SqlStatistics previous = SqlStatementCounter.bind((SqlStatistics) request.getAttribute(STATISTICS_ATTRIBUTE));
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                SqlStatementCounter.bind(previous);
+            }
+            return;
+        }
+
+        SqlStatementCounter.start(properties.getRepeatedShapeThreshold());
+        SqlStatistics statistics = SqlStatementCounter.current();
+        request.setAttribute(STATISTICS_ATTRIBUTE, statistics);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementCounter.stop();
+        }
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new CompletionListener(request, statistics));
+        } else {
+            checkBudget(request, statistics);
+        }
+    }
+
+    private void checkBudget(HttpServletRequest request, SqlStatistics statistics) {
+        String violation = describeViolation(request, statistics, properties);
+        if (violation != null) {
+            LOG.warn(violation);
+        }
+    }
+
+    /**
+     * @return the route, the count and the suspected N+1 call sites, or null within the route's budget
+     */
+    static String describeViolation(HttpServletRequest request, SqlStatistics statistics,
+                                    SqlBudgetProperties properties) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+        int budget = properties.budgetFor(route);
+        if (statistics.getCount() <= budget) {
+            return null;
+        }
+
+        StringBuilder msg = new StringBuilder();
+        msg.append(String.format("%s issued %d SQL statements, budget is %d", route, statistics.getCount(), budget));
+        for (Map.Entry<String, Integer> shape : statistics.getSuspectedNPlusOne().entrySet()) {
+            msg.append(String.format("%n  suspected N+1 (%dx): %s%n    at %s", shape.getValue(), shape.getKey(),
+                    statistics.getCallSite(shape.getKey())));
+        }
+        return msg.toString();
+    }
+
+    private class CompletionListener implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final SqlStatistics statistics;
+
+        private CompletionListener(HttpServletRequest request, SqlStatistics statistics) {
+            this.request = request;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            checkBudget(request, statistics);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.project.social_network.sql;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * sql-budget.default-budget applies to every route without an entry in sql-budget.routes,
+ * which is keyed by "METHOD pattern", e.g. sql-budget.routes[GET /posts/friends-posts]=10.
+ */
+@Data
+@ConfigurationProperties(prefix = "sql-budget")
+public class SqlBudgetProperties {
+
+    private boolean enabled = true;
+    private int defaultBudget = 20;
+    private int repeatedShapeThreshold = SqlStatementCounter.DEFAULT_N_PLUS_ONE_THRESHOLD;
+    private boolean failOnViolation = false;
+    private Map<String, Integer> routes = new HashMap<>();
+
+    public int budgetFor(String route) {
+        return routes.getOrDefault(route, defaultBudget);
+    }
+}
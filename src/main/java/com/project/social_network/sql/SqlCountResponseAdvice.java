@@ -0,0 +1,54 @@
+package com.project.social_network.sql;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the number of SQL statements issued so far as a response header, right before the
+ * body is written and the headers are committed. With sql-budget.fail-on-violation this is
+ * also where an exceeded budget fails the request, while a 500 can still be sent.
+ */
+@ControllerAdvice
+public class SqlCountResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    private final SqlBudgetProperties properties;
+
+    @Autowired
+    public SqlCountResponseAdvice(SqlBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body,
+                                  MethodParameter returnType,
+                                  MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request,
+                                  ServerHttpResponse response) {
+        SqlStatistics statistics = SqlStatementCounter.current();
+        if (statistics == null) {
+            return body;
+        }
+        response.getHeaders().set(SqlBudgetFilter.SQL_COUNT_HEADER, Integer.toString(statistics.getCount()));
+        if (properties.isFailOnViolation() && request instanceof ServletServerHttpRequest) {
+            String violation = SqlBudgetFilter.describeViolation(
+                    ((ServletServerHttpRequest) request).getServletRequest(), statistics, properties);
+            if (violation != null) {
+                throw new SqlBudgetExceededException(violation);
+            }
+        }
+        return body;
+    }
+}
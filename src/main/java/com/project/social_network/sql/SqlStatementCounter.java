@@ -0,0 +1,112 @@
+package com.project.social_network.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.function.Supplier;
+
+/**
+ * Hibernate statement inspector that counts the statements of the current thread's
+ * measurement, if one was started. Registered through
+ * spring.jpa.properties.hibernate.session_factory.statement_inspector.
+ *
+ * Tests can measure a block directly:
+ * <pre>
+ *     SqlStatistics stats = SqlStatementCounter.measure(() -> postService.getAllPosts(null, 20));
+ *     assertTrue(stats.getCount() <= 2);
+ * </pre>
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    public static final int DEFAULT_N_PLUS_ONE_THRESHOLD = 5;
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.record(sql);
+        }
+        return sql;
+    }
+
+    public static void start(int nPlusOneThreshold) {
+        CURRENT.set(new SqlStatistics(nPlusOneThreshold));
+    }
+
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes statistics the current thread's measurement, e.g. on the worker thread a request was
+     * handed to, and returns the previous one so it can be bound back afterwards.
+     */
+    public static SqlStatistics bind(SqlStatistics statistics) {
+        SqlStatistics previous = CURRENT.get();
+        if (statistics == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(statistics);
+        }
+        return previous;
+    }
+
+    public static SqlStatistics stop() {
+        SqlStatistics statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics;
+    }
+
+    public static SqlStatistics measure(Runnable block) {
+        return measureResult(() -> {
+            block.run();
+            return null;
+        }).statistics;
+    }
+
+    public static <T> Measured<T> measureResult(Supplier<T> block) {
+        SqlStatistics outer = CURRENT.get();
+        start(DEFAULT_N_PLUS_ONE_THRESHOLD);
+        try {
+            T result = block.get();
+            return new Measured<>(result, CURRENT.get());
+        } finally {
+            CURRENT.remove();
+            if (outer != null) {
+                CURRENT.set(outer);
+            }
+        }
+    }
+
+    /**
+     * Fails with {@link SqlBudgetExceededException} when the block issues more than budget statements.
+     */
+    public static SqlStatistics assertBudget(int budget, Runnable block) {
+        SqlStatistics statistics = measure(block);
+        if (statistics.getCount() > budget) {
+            throw new SqlBudgetExceededException("Expected at most " + budget + " SQL statements but "
+                    + statistics.getCount() + " were issued. Suspected N+1: " + statistics.getSuspectedNPlusOne());
+        }
+        return statistics;
+    }
+
+    public static final class Measured<T> {
+
+        private final T result;
+        private final SqlStatistics statistics;
+
+        private Measured(T result, SqlStatistics statistics) {
+            this.result = result;
+            this.statistics = statistics;
+        }
+
+        public T getResult() {
+            return result;
+        }
+
+        public SqlStatistics getStatistics() {
+            return statistics;
+        }
+    }
+}
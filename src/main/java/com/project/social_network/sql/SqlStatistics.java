@@ -0,0 +1,79 @@
+package com.project.social_network.sql;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Statements issued by one request (or one measured block), grouped by normalized shape.
+ * A shape repeated at least the N+1 threshold times is reported with the call site that
+ * issued it when the threshold was crossed. Synchronized, an async request records statements
+ * from the servlet thread and from the thread its handler runs on.
+ */
+public class SqlStatistics {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'[^']*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+
+    private final int nPlusOneThreshold;
+    private final Map<String, Integer> shapeCounts = new HashMap<>();
+    private final Map<String, String> callSites = new LinkedHashMap<>();
+    private int count;
+
+    SqlStatistics(int nPlusOneThreshold) {
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    synchronized void record(String sql) {
+        count++;
+        String shape = normalize(sql);
+        int repeats = shapeCounts.merge(shape, 1, Integer::sum);
+        if (repeats == nPlusOneThreshold) {
+            callSites.put(shape, callSite());
+        }
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * @return shape -> number of executions, for shapes repeated at least the N+1 threshold
+     */
+    public synchronized Map<String, Integer> getSuspectedNPlusOne() {
+        Map<String, Integer> suspected = new LinkedHashMap<>();
+        for (String shape : callSites.keySet()) {
+            suspected.put(shape, shapeCounts.get(shape));
+        }
+        return suspected;
+    }
+
+    public synchronized String getCallSite(String shape) {
+        return callSites.get(shape);
+    }
+
+    static String normalize(String sql) {
+        String shape = WHITESPACE.matcher(sql).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return IN_LIST.matcher(shape).replaceAll("(?)").trim();
+    }
+
+    private static String callSite() {
+        StringBuilder site = new StringBuilder();
+        for (StackTraceElement frame : new Throwable().getStackTrace()) {
+            String className = frame.getClassName();
+            if (className.startsWith("com.project.social_network.")
+                    && !className.startsWith("com.project.social_network.sql.")
+                    && !className.contains("$$")) {
+                if (site.length() > 0) {
+                    site.append(" <- ");
+                }
+                site.append(frame.getClassName()).append('.').append(frame.getMethodName())
+                        .append(':').append(frame.getLineNumber());
+            }
+        }
+        return site.length() == 0 ? "unknown" : site.toString();
+    }
+}
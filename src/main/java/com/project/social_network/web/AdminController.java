@@ -0,0 +1,95 @@
+package com.project.social_network.web;
+
+import com.project.social_network.bulkhead.BulkheadStats;
+import com.project.social_network.bulkhead.Bulkheads;
+import com.project.social_network.cache.CacheStats;
+import com.project.social_network.cache.SerializedResponseCache;
+import com.project.social_network.cache.SingleFlight;
+import com.project.social_network.cache.SingleFlightStats;
+import com.project.social_network.concurrency.AdaptiveConcurrencyLimiter;
+import com.project.social_network.concurrency.ConcurrencyLimitStats;
+import com.project.social_network.exceptions.PostNotFoundException;
+import com.project.social_network.logger.SlowRequestBuffer;
+import com.project.social_network.logger.SlowRequestRecord;
+import com.project.social_network.payload.responce.MessageResponse;
+import com.project.social_network.services.ArchivalService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Operational endpoints; access is restricted to admin.users by the /admin/** rule in SecurityConfig.
+ */
+@RestController
+@RequestMapping("/admin")
+@CrossOrigin
+public class AdminController {
+
+    private final SlowRequestBuffer slowRequestBuffer;
+    private final ArchivalService archivalService;
+    private final SerializedResponseCache postResponseCache;
+    private final SerializedResponseCache commentResponseCache;
+    private final List<SingleFlight<?, ?>> singleFlights;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Bulkheads bulkheads;
+
+    @Autowired
+    public AdminController(SlowRequestBuffer slowRequestBuffer,
+                           ArchivalService archivalService,
+                           @Qualifier("postResponseCache") SerializedResponseCache postResponseCache,
+                           @Qualifier("commentResponseCache") SerializedResponseCache commentResponseCache,
+                           List<SingleFlight<?, ?>> singleFlights,
+                           AdaptiveConcurrencyLimiter concurrencyLimiter,
+                           Bulkheads bulkheads) {
+        this.slowRequestBuffer = slowRequestBuffer;
+        this.archivalService = archivalService;
+        this.postResponseCache = postResponseCache;
+        this.commentResponseCache = commentResponseCache;
+        this.singleFlights = singleFlights;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.bulkheads = bulkheads;
+    }
+
+    @GetMapping("/slow-requests")
+    public ResponseEntity<List<SlowRequestRecord>> getSlowRequests(
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return new ResponseEntity<>(slowRequestBuffer.latest(Math.max(limit, 0)), HttpStatus.OK);
+    }
+
+    @GetMapping("/response-cache")
+    public ResponseEntity<List<CacheStats>> getResponseCacheStats() {
+        return new ResponseEntity<>(Arrays.asList(postResponseCache.getStats(), commentResponseCache.getStats()),
+                HttpStatus.OK);
+    }
+
+    @GetMapping("/single-flight")
+    public ResponseEntity<List<SingleFlightStats>> getSingleFlightStats() {
+        return new ResponseEntity<>(singleFlights.stream()
+                .map(SingleFlight::getStats)
+                .collect(Collectors.toList()), HttpStatus.OK);
+    }
+
+    @GetMapping("/concurrency")
+    public ResponseEntity<ConcurrencyLimitStats> getConcurrencyStats() {
+        return new ResponseEntity<>(concurrencyLimiter.getStats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/bulkheads")
+    public ResponseEntity<List<BulkheadStats>> getBulkheadStats() {
+        return new ResponseEntity<>(bulkheads.getStats(), HttpStatus.OK);
+    }
+
+    @PostMapping("/posts/{postId}/restore")
+    public ResponseEntity<MessageResponse> restorePost(@PathVariable("postId") Long postId) {
+        if (archivalService.restorePost(postId) == 0) {
+            throw new PostNotFoundException("Archived post not found with ID " + postId);
+        }
+        return new ResponseEntity<>(new MessageResponse("Post was restored"), HttpStatus.OK);
+    }
+}
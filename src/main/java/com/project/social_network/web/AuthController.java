@@ -1,13 +1,17 @@
 package com.project.social_network.web;
 
+import com.project.social_network.bulkhead.Bulkheads;
+import com.project.social_network.bulkhead.EBulkhead;
 import com.project.social_network.entity.User;
 import com.project.social_network.entity.enums.EStatus;
 import com.project.social_network.payload.request.LoginRequest;
+import com.project.social_network.payload.request.RefreshTokenRequest;
 import com.project.social_network.payload.request.SignupRequest;
 import com.project.social_network.payload.responce.JWTTokenSuccessResponse;
 import com.project.social_network.payload.responce.MessageResponse;
 import com.project.social_network.security.JWTTokenProvider;
 import com.project.social_network.security.SecurityConstants;
+import com.project.social_network.services.RefreshTokenService;
 import com.project.social_network.services.UserService;
 import com.project.social_network.validations.ResponseErrorValidation;
 import org.slf4j.Logger;
@@ -23,6 +27,7 @@ import org.springframework.stereotype.Controller;
 import org.springframework.util.ObjectUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import javax.validation.Valid;
 
@@ -38,16 +43,22 @@ public class AuthController {
     private final UserService userService;
     private final AuthenticationManager authenticationManager;
     private final JWTTokenProvider jwtTokenProvider;
+    private final RefreshTokenService refreshTokenService;
+    private final Bulkheads bulkheads;
 
     @Autowired
     public AuthController(ResponseErrorValidation responseErrorValidation,
                           UserService userService,
                           AuthenticationManager authenticationManager,
-                          JWTTokenProvider jwtTokenProvider) {
+                          JWTTokenProvider jwtTokenProvider,
+                          RefreshTokenService refreshTokenService,
+                          Bulkheads bulkheads) {
         this.responseErrorValidation = responseErrorValidation;
         this.userService = userService;
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.refreshTokenService = refreshTokenService;
+        this.bulkheads = bulkheads;
     }
 
     @GetMapping("/register")
@@ -61,39 +72,80 @@ public class AuthController {
     }
 
     @PostMapping("/sign-in")
-    public ResponseEntity<Object> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
-                                                   BindingResult bindingResult)  {
-        ResponseEntity<Object> errors = responseErrorValidation.mapValidationService(bindingResult);
-        if (!ObjectUtils.isEmpty(errors)) {
-            LOG.error("Errors in authorization");
-            return errors;
-        }
-
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getUsername(),
-                        loginRequest.getPassword()
-                ));
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = SecurityConstants.TOKEN_PREFIX + jwtTokenProvider.generateToken(authentication);
-        LOG.info("User Authorization");
-
-        return ResponseEntity.ok(new JWTTokenSuccessResponse(true, jwt));
+    public WebAsyncTask<ResponseEntity<Object>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                                                 BindingResult bindingResult)  {
+        return bulkheads.submit(EBulkhead.AUTH, () -> {
+            ResponseEntity<Object> errors = responseErrorValidation.mapValidationService(bindingResult);
+            if (!ObjectUtils.isEmpty(errors)) {
+                LOG.error("Errors in authorization");
+                return errors;
+            }
+
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            loginRequest.getUsername(),
+                            loginRequest.getPassword()
+                    ));
+
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            String jwt = SecurityConstants.TOKEN_PREFIX + jwtTokenProvider.generateToken(authentication);
+            String refreshToken = refreshTokenService.issueToken(((User) authentication.getPrincipal()).getId());
+            LOG.info("User Authorization");
+
+            return ResponseEntity.ok(new JWTTokenSuccessResponse(true, jwt, refreshToken));
+        });
+    }
+
+    @PostMapping("/refresh")
+    public WebAsyncTask<ResponseEntity<Object>> refreshToken(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest,
+                                                             BindingResult bindingResult) {
+        return bulkheads.submit(EBulkhead.AUTH, () -> {
+            ResponseEntity<Object> errors = responseErrorValidation.mapValidationService(bindingResult);
+            if (!ObjectUtils.isEmpty(errors)) {
+                LOG.error("Errors in token refresh");
+                return errors;
+            }
+
+            User user = refreshTokenService.consumeToken(refreshTokenRequest.getRefreshToken());
+            String jwt = SecurityConstants.TOKEN_PREFIX + jwtTokenProvider.generateToken(user);
+            String refreshToken = refreshTokenService.issueToken(user.getId());
+            LOG.info("Refreshing token of user {}", user.getId());
+
+            return ResponseEntity.ok(new JWTTokenSuccessResponse(true, jwt, refreshToken));
+        });
+    }
+
+    @PostMapping("/logout")
+    public WebAsyncTask<ResponseEntity<Object>> logout(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest,
+                                                       BindingResult bindingResult) {
+        return bulkheads.submit(EBulkhead.AUTH, () -> {
+            ResponseEntity<Object> errors = responseErrorValidation.mapValidationService(bindingResult);
+            if (!ObjectUtils.isEmpty(errors)) {
+                LOG.error("Errors in logout");
+                return errors;
+            }
+
+            refreshTokenService.revokeToken(refreshTokenRequest.getRefreshToken());
+            LOG.info("User Logout");
+
+            return ResponseEntity.ok(new MessageResponse("Logged out successfully"));
+        });
     }
 
     @PostMapping("/signup")
-    public ResponseEntity<Object> registerUser(@Valid @RequestBody SignupRequest signupRequest,
-                                               BindingResult bindingResult) {
-        ResponseEntity<Object> errors = responseErrorValidation.mapValidationService(bindingResult);
-        if (!ObjectUtils.isEmpty(errors)) {
-            LOG.error("Errors in registration");
-            return ResponseEntity.ok(new MessageResponse("User already registered"));
-        }
-
-        userService.saveUser(signupRequest);
-        LOG.info("User Registration");
-
-        return ResponseEntity.ok(new MessageResponse("User registered successfully"));
+    public WebAsyncTask<ResponseEntity<Object>> registerUser(@Valid @RequestBody SignupRequest signupRequest,
+                                                             BindingResult bindingResult) {
+        return bulkheads.submit(EBulkhead.AUTH, () -> {
+            ResponseEntity<Object> errors = responseErrorValidation.mapValidationService(bindingResult);
+            if (!ObjectUtils.isEmpty(errors)) {
+                LOG.error("Errors in registration");
+                return ResponseEntity.ok(new MessageResponse("User already registered"));
+            }
+
+            userService.saveUser(signupRequest);
+            LOG.info("User Registration");
+
+            return ResponseEntity.ok(new MessageResponse("User registered successfully"));
+        });
     }
 }
@@ -1,10 +1,14 @@
 package com.project.social_network.web;
 
+import com.project.social_network.bulkhead.Bulkheads;
+import com.project.social_network.bulkhead.EBulkhead;
+import com.project.social_network.cache.CachedResponseWriter;
 import com.project.social_network.dto.CommentDTO;
 import com.project.social_network.entity.Comment;
 import com.project.social_network.entity.User;
 import com.project.social_network.facade.CommentFacade;
 import com.project.social_network.payload.responce.MessageResponse;
+import com.project.social_network.services.CommentIngestionService;
 import com.project.social_network.services.CommentService;
 import com.project.social_network.validations.ResponseErrorValidation;
 import org.slf4j.Logger;
@@ -15,6 +19,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.util.ObjectUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import javax.validation.Valid;
 import java.security.Principal;
@@ -29,52 +34,73 @@ public class CommentController {
     public static final Logger LOG = LoggerFactory.getLogger(CommentController.class);
 
     private final CommentService commentService;
+    private final CommentIngestionService commentIngestionService;
     private final CommentFacade commentFacade;
     private final ResponseErrorValidation responseErrorValidation;
+    private final CachedResponseWriter cachedResponseWriter;
+    private final Bulkheads bulkheads;
 
     @Autowired
     public CommentController(CommentService commentService,
+                             CommentIngestionService commentIngestionService,
                              CommentFacade commentFacade,
-                             ResponseErrorValidation responseErrorValidation) {
+                             ResponseErrorValidation responseErrorValidation,
+                             CachedResponseWriter cachedResponseWriter,
+                             Bulkheads bulkheads) {
         this.commentService = commentService;
+        this.commentIngestionService = commentIngestionService;
         this.commentFacade = commentFacade;
         this.responseErrorValidation = responseErrorValidation;
+        this.cachedResponseWriter = cachedResponseWriter;
+        this.bulkheads = bulkheads;
     }
 
     @PostMapping("/{postId}/create")
-    public ResponseEntity<Object> createComment(@Valid @RequestBody CommentDTO commentDTO,
-                                                @PathVariable(value = "postId") String postId,
-                                                BindingResult bindingResult,
-                                                Principal principal) {
-        ResponseEntity<Object> errors = responseErrorValidation.mapValidationService(bindingResult);
-        if (!ObjectUtils.isEmpty(errors)) {
-            LOG.error("Error during commenting post");
-            return errors;
-        }
+    public WebAsyncTask<ResponseEntity<Object>> createComment(@Valid @RequestBody CommentDTO commentDTO,
+                                                              @PathVariable(value = "postId") String postId,
+                                                              BindingResult bindingResult,
+                                                              @RequestHeader(value = "Idempotency-Key", required = false)
+                                                              String idempotencyKey,
+                                                              Principal principal) {
+        return bulkheads.submit(EBulkhead.WRITE, () -> {
+            ResponseEntity<Object> errors = responseErrorValidation.mapValidationService(bindingResult);
+            if (!ObjectUtils.isEmpty(errors)) {
+                LOG.error("Error during commenting post");
+                return errors;
+            }
 
-        Comment comment = commentService.saveComment(Long.parseLong(postId), commentDTO, principal);
-        CommentDTO createdComment = commentFacade.commentToCommentDTO(comment);
+            Comment comment = commentIngestionService.createComment(Long.parseLong(postId), commentDTO, principal,
+                    idempotencyKey);
+            CommentDTO createdComment = commentFacade.commentToCommentDTO(comment);
 
-        LOG.info("Commenting post {}", postId);
-        return new ResponseEntity<>(createdComment, HttpStatus.OK);
+            LOG.info("Commenting post {}", postId);
+            return new ResponseEntity<>(createdComment, HttpStatus.OK);
+        });
     }
 
     @GetMapping("/{postId}/all")
-    public ResponseEntity<List<CommentDTO>> getAllCommentsToPost(@PathVariable(value = "postId")
-                                                                         String postId) {
-        List<CommentDTO> commentDTOList = commentService.getAllCommentsForPost(Long.parseLong(postId))
-                .stream()
-                .map(commentFacade::commentToCommentDTO)
-                .collect(Collectors.toList());
-        LOG.info("Getting comments of post {}", postId);
-        return new ResponseEntity<>(commentDTOList, HttpStatus.OK);
+    public WebAsyncTask<ResponseEntity<Object>> getAllCommentsToPost(@PathVariable(value = "postId")
+                                                                     String postId) {
+        return bulkheads.submit(EBulkhead.FEED, () -> {
+            List<Comment> comments = commentService.getAllCommentsForPost(Long.parseLong(postId));
+            LOG.info("Getting comments of post {}", postId);
+            if (cachedResponseWriter.canServe()) {
+                return new ResponseEntity<>(cachedResponseWriter.writeComments(comments), HttpStatus.OK);
+            }
+            List<CommentDTO> commentDTOList = comments.stream()
+                    .map(commentFacade::commentToCommentDTO)
+                    .collect(Collectors.toList());
+            return new ResponseEntity<>(commentDTOList, HttpStatus.OK);
+        });
     }
 
     @PostMapping("/{commentId}/delete")
-    public ResponseEntity<MessageResponse> deleteComment(@PathVariable(value = "commentId")
-                                                                     String commentId) {
-        commentService.deleteComment(Long.parseLong(commentId));
-        LOG.info("Deleting comment {}", commentId);
-        return new ResponseEntity<>(new MessageResponse("Comment was deleted"), HttpStatus.OK);
+    public WebAsyncTask<ResponseEntity<MessageResponse>> deleteComment(@PathVariable(value = "commentId")
+                                                                       String commentId) {
+        return bulkheads.submit(EBulkhead.WRITE, () -> {
+            commentService.deleteComment(Long.parseLong(commentId));
+            LOG.info("Deleting comment {}", commentId);
+            return new ResponseEntity<>(new MessageResponse("Comment was deleted"), HttpStatus.OK);
+        });
     }
 }
@@ -1,5 +1,8 @@
 package com.project.social_network.web;
 
+import com.project.social_network.bulkhead.Bulkheads;
+import com.project.social_network.bulkhead.EBulkhead;
+import com.project.social_network.cache.CachedResponseWriter;
 import com.project.social_network.dto.PostDTO;
 import com.project.social_network.entity.Post;
 import com.project.social_network.facade.PostFacade;
@@ -9,15 +12,17 @@ import com.project.social_network.validations.ResponseErrorValidation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.ObjectUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import javax.validation.Valid;
 import java.security.Principal;
-import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -31,119 +36,179 @@ public class PostController {
     private final PostFacade postFacade;
     private final PostService postService;
     private final ResponseErrorValidation responseErrorValidation;
+    private final CachedResponseWriter cachedResponseWriter;
+    private final Bulkheads bulkheads;
 
     @Autowired
     public PostController(PostFacade postFacade,
                           PostService postService,
-                          ResponseErrorValidation responseErrorValidation) {
+                          ResponseErrorValidation responseErrorValidation,
+                          CachedResponseWriter cachedResponseWriter,
+                          Bulkheads bulkheads) {
         this.postFacade = postFacade;
         this.postService = postService;
         this.responseErrorValidation = responseErrorValidation;
+        this.cachedResponseWriter = cachedResponseWriter;
+        this.bulkheads = bulkheads;
     }
 
     @PostMapping("/create")
-    public ResponseEntity<Object> createPost(@Valid @RequestBody PostDTO postDTO,
-                                             BindingResult bindingResult,
-                                             Principal principal) {
-        ResponseEntity<Object> errors = responseErrorValidation.mapValidationService(bindingResult);
-        if (!ObjectUtils.isEmpty(errors)) {
-            LOG.error("Errors during creating Post");
-            return errors;
-        }
-
-        Post post = postService.createPost(postDTO, principal);
-        PostDTO createdPost = postFacade.postToPostDTO(post);
-
-        LOG.info("Creating Post");
-        return new ResponseEntity<>(createdPost, HttpStatus.OK);
+    public WebAsyncTask<ResponseEntity<Object>> createPost(@Valid @RequestBody PostDTO postDTO,
+                                                           BindingResult bindingResult,
+                                                           Principal principal) {
+        return bulkheads.submit(EBulkhead.WRITE, () -> {
+            ResponseEntity<Object> errors = responseErrorValidation.mapValidationService(bindingResult);
+            if (!ObjectUtils.isEmpty(errors)) {
+                LOG.error("Errors during creating Post");
+                return errors;
+            }
+
+            Post post = postService.createPost(postDTO, principal);
+            PostDTO createdPost = postFacade.postToPostDTO(post);
+
+            LOG.info("Creating Post");
+            return new ResponseEntity<>(createdPost, HttpStatus.OK);
+        });
     }
 
     @PostMapping("/{postId}/update")
-    public ResponseEntity<Object> updatePost(@Valid @RequestBody PostDTO postDTO,
-                                             @PathVariable(value = "postId") String postId,
-                                             BindingResult bindingResult,
-                                             Principal principal) {
-        ResponseEntity<Object> errors = responseErrorValidation.mapValidationService(bindingResult);
-        if (!ObjectUtils.isEmpty(errors)) {
-            LOG.error("Errors during updating post {}", postId);
-            return errors;
-        }
-
-        Post post = postService.updatePost(postDTO, principal, Long.parseLong(postId));
-        PostDTO updatedPost = postFacade.postToPostDTO(post);
-
-        LOG.info("Updating post {}", postId);
-        return new ResponseEntity<>(updatedPost, HttpStatus.OK);
+    public WebAsyncTask<ResponseEntity<Object>> updatePost(@Valid @RequestBody PostDTO postDTO,
+                                                           @PathVariable(value = "postId") String postId,
+                                                           BindingResult bindingResult,
+                                                           Principal principal) {
+        return bulkheads.submit(EBulkhead.WRITE, () -> {
+            ResponseEntity<Object> errors = responseErrorValidation.mapValidationService(bindingResult);
+            if (!ObjectUtils.isEmpty(errors)) {
+                LOG.error("Errors during updating post {}", postId);
+                return errors;
+            }
+
+            Post post = postService.updatePost(postDTO, principal, Long.parseLong(postId));
+            PostDTO updatedPost = postFacade.postToPostDTO(post);
+
+            LOG.info("Updating post {}", postId);
+            return new ResponseEntity<>(updatedPost, HttpStatus.OK);
+        });
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<PostDTO>> getAllPost() {
-        List<PostDTO> postDTOList = postService.getAllPosts()
-                .stream()
-                .map(postFacade::postToPostDTO)
-                .collect(Collectors.toList());
+    public WebAsyncTask<ResponseEntity<Object>> getAllPost(@RequestParam(value = "before", required = false)
+                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+                                                           @RequestParam(value = "size", defaultValue = "20") int size) {
+        return bulkheads.submit(EBulkhead.FEED, () -> {
+            List<Post> posts = postService.getAllPosts(before, pageSize(size));
+
+            LOG.info("Getting all posts");
+            return postListResponse(posts);
+        });
+    }
 
-        LOG.info("Getting all posts");
-        return new ResponseEntity<>(postDTOList, HttpStatus.OK);
+    @GetMapping("/trending")
+    public WebAsyncTask<ResponseEntity<Object>> getTrendingPosts(@RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return bulkheads.submit(EBulkhead.FEED, () -> {
+            List<Post> posts = postService.getTrendingPosts(Math.min(Math.max(limit, 1), 100));
+
+            LOG.info("Getting trending posts");
+            return postListResponse(posts);
+        });
     }
 
     @GetMapping("/my-posts")
-    public ResponseEntity<List<PostDTO>> getAllPostsForCurrentUser(Principal principal) {
-        List<PostDTO> postDTOList = postService.getAllPostsForCurrentUser(principal)
-                .stream()
-                .map(postFacade::postToPostDTO)
-                .collect(Collectors.toList());
-
-        LOG.info("Getting all posts of current user");
-        return new ResponseEntity<>(postDTOList, HttpStatus.OK);
+    public WebAsyncTask<ResponseEntity<Object>> getAllPostsForCurrentUser(@RequestParam(value = "before", required = false)
+                                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+                                                                          @RequestParam(value = "size", defaultValue = "20") int size,
+                                                                          Principal principal) {
+        return bulkheads.submit(EBulkhead.FEED, () -> {
+            List<Post> posts = postService.getAllPostsForCurrentUser(principal, before, pageSize(size));
+
+            LOG.info("Getting all posts of current user");
+            return postListResponse(posts);
+        });
     }
 
     @GetMapping("/my-posts/{postId}")
-    public ResponseEntity<PostDTO> getAllPostsForCurrentUser(@PathVariable("postId") String postId,
-                                                                   Principal principal) {
-        Post post = postService.getPostByIdAndCurrentUser(Long.parseLong(postId), principal);
-        PostDTO postDTO = postFacade.postToPostDTO(post);
-
-        LOG.info("Getting post {} of current user", postId);
-        return new ResponseEntity<>(postDTO, HttpStatus.OK);
+    public WebAsyncTask<ResponseEntity<PostDTO>> getAllPostsForCurrentUser(@PathVariable("postId") String postId,
+                                                                           Principal principal) {
+        return bulkheads.submit(EBulkhead.POINT_READ, () -> {
+            Post post = postService.getPostByIdAndCurrentUser(Long.parseLong(postId), principal);
+            PostDTO postDTO = postFacade.postToPostDTO(post);
+
+            LOG.info("Getting post {} of current user", postId);
+            return new ResponseEntity<>(postDTO, HttpStatus.OK);
+        });
     }
 
     @PostMapping("/{postId}/{username}/like")
-    public ResponseEntity<PostDTO> likePost(@PathVariable("postId") String postId,
-                                            @PathVariable("username") String username) {
-        Post post = postService.likePost(Long.parseLong(postId), username);
-        PostDTO postDTO = postFacade.postToPostDTO(post);
-
-        LOG.info("Liking post {} by user {}", postId, username);
-        return new ResponseEntity<>(postDTO, HttpStatus.OK);
+    public WebAsyncTask<ResponseEntity<PostDTO>> likePost(@PathVariable("postId") String postId,
+                                                          @PathVariable("username") String username) {
+        return bulkheads.submit(EBulkhead.WRITE, () -> {
+            Post post = postService.likePost(Long.parseLong(postId), username);
+            PostDTO postDTO = postFacade.postToPostDTO(post);
+
+            LOG.info("Liking post {} by user {}", postId, username);
+            return new ResponseEntity<>(postDTO, HttpStatus.OK);
+        });
     }
 
     @GetMapping("/friends-posts")
-    public ResponseEntity<List<PostDTO>> getFriendsPosts(Principal principal) {
-        List<Post> posts = postService.getAllPostsOfFriends(principal);
-        List<PostDTO> postDTOList = new ArrayList<>();
+    public WebAsyncTask<ResponseEntity<Object>> getFriendsPosts(@RequestParam(value = "before", required = false)
+                                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+                                                                @RequestParam(value = "size", defaultValue = "20") int size,
+                                                                Principal principal) {
+        return bulkheads.submit(EBulkhead.FEED, () -> {
+            List<Post> posts = postService.getAllPostsOfFriends(principal, before, pageSize(size));
+
+            LOG.info("Getting posts of friends");
+            return postListResponse(posts);
+        });
+    }
 
-        for (Post post : posts) {
-            postDTOList.add(postFacade.postToPostDTO(post));
-        }
+    @GetMapping("/batch")
+    public WebAsyncTask<ResponseEntity<Object>> getPostsByIds(@RequestParam("ids") List<Long> ids,
+                                                              Principal principal) {
+        return bulkheads.submit(EBulkhead.POINT_READ, () -> {
+            List<Post> posts = postService.getPostsByIds(ids, principal);
 
-        LOG.info("Getting posts of friends");
-        return new ResponseEntity<>(postDTOList, HttpStatus.OK);
+            LOG.info("Getting {} posts by ids", posts.size());
+            return postListResponse(posts);
+        });
     }
 
     @GetMapping("/{postId}")
-    public ResponseEntity<PostDTO> getPost(@PathVariable("postId") String postId,
-                                           Principal principal) {
-        Post post = postService.getPostById(Long.parseLong(postId), principal);
-        PostDTO postDTO = postFacade.postToPostDTO(post);
-
-        return new ResponseEntity<>(postDTO, HttpStatus.OK);
+    public WebAsyncTask<ResponseEntity<PostDTO>> getPost(@PathVariable("postId") String postId,
+                                                         Principal principal) {
+        return bulkheads.submit(EBulkhead.POINT_READ, () -> {
+            Post post = postService.getPostById(Long.parseLong(postId), principal);
+            PostDTO postDTO = postFacade.postToPostDTO(post);
+
+            return new ResponseEntity<>(postDTO, HttpStatus.OK);
+        });
     }
 
     @PostMapping("/{postId}/delete")
-    public ResponseEntity<MessageResponse> deletePost(@PathVariable("postId") String postId) {
-        postService.inactivePost(Long.parseLong(postId));
+    public WebAsyncTask<ResponseEntity<MessageResponse>> deletePost(@PathVariable("postId") String postId) {
+        return bulkheads.submit(EBulkhead.WRITE, () -> {
+            postService.inactivePost(Long.parseLong(postId));
+
+            return new ResponseEntity<>(new MessageResponse("Post was deleted"), HttpStatus.OK);
+        });
+    }
+
+    private static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), 100);
+    }
 
-        return new ResponseEntity<>(new MessageResponse("Post was deleted"), HttpStatus.OK);
+    /**
+     * Full JSON payloads are spliced together from the serialized-response cache; a fields=
+     * selection or a binary encoding goes through the regular DTO serialization.
+     */
+    private ResponseEntity<Object> postListResponse(List<Post> posts) {
+        if (cachedResponseWriter.canServe()) {
+            return new ResponseEntity<>(cachedResponseWriter.writePosts(posts), HttpStatus.OK);
+        }
+        List<PostDTO> postDTOList = posts.stream()
+                .map(postFacade::postToPostDTO)
+                .collect(Collectors.toList());
+        return new ResponseEntity<>(postDTOList, HttpStatus.OK);
     }
 }
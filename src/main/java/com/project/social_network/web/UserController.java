@@ -1,8 +1,15 @@
 package com.project.social_network.web;
 
+import com.project.social_network.bulkhead.Bulkheads;
+import com.project.social_network.bulkhead.EBulkhead;
+import com.project.social_network.dto.FriendRequestsPageDTO;
+import com.project.social_network.dto.MutualFriendsDTO;
+import com.project.social_network.dto.ProfileSummaryDTO;
+import com.project.social_network.dto.SeparationDTO;
 import com.project.social_network.dto.UserDTO;
 import com.project.social_network.entity.User;
 import com.project.social_network.facade.UserFacade;
+import com.project.social_network.services.FriendGraphService;
 import com.project.social_network.services.UserService;
 import com.project.social_network.validations.ResponseErrorValidation;
 import org.slf4j.Logger;
@@ -13,6 +20,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.util.ObjectUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import javax.validation.Valid;
 import java.security.Principal;
@@ -29,141 +37,241 @@ public class UserController {
     private final UserService userService;
     private final UserFacade userFacade;
     private final ResponseErrorValidation responseErrorValidation;
+    private final Bulkheads bulkheads;
 
     @Autowired
     public UserController(UserService userService,
                           UserFacade userFacade,
-                          ResponseErrorValidation responseErrorValidation) {
+                          ResponseErrorValidation responseErrorValidation,
+                          Bulkheads bulkheads) {
         this.userService = userService;
         this.userFacade = userFacade;
         this.responseErrorValidation = responseErrorValidation;
+        this.bulkheads = bulkheads;
     }
 
     @GetMapping("/")
-    public ResponseEntity<UserDTO> getCurrentUser(Principal principal) {
-        User user = userService.getCurrentUser(principal);
-        UserDTO userDTO = userFacade.userToUserDTO(user);
+    public WebAsyncTask<ResponseEntity<UserDTO>> getCurrentUser(Principal principal) {
+        return bulkheads.submit(EBulkhead.POINT_READ, () -> {
+            User user = userService.getCurrentUser(principal);
+            UserDTO userDTO = userFacade.userToUserDTO(user);
 
-        return new ResponseEntity<>(userDTO, HttpStatus.OK);
+            return new ResponseEntity<>(userDTO, HttpStatus.OK);
+        });
     }
 
     @PostMapping("/update")
-    public ResponseEntity<Object> updateUser(@Valid @RequestBody UserDTO userDTO,
-                                             BindingResult bindingResult, Principal principal) {
-        ResponseEntity<Object> errors = responseErrorValidation.mapValidationService(bindingResult);
-        if (!ObjectUtils.isEmpty(errors)) {
-            LOG.error("Errors during updating User Information {}", userDTO.getEmail());
-            return errors;
-        }
+    public WebAsyncTask<ResponseEntity<Object>> updateUser(@Valid @RequestBody UserDTO userDTO,
+                                                           BindingResult bindingResult, Principal principal) {
+        return bulkheads.submit(EBulkhead.WRITE, () -> {
+            ResponseEntity<Object> errors = responseErrorValidation.mapValidationService(bindingResult);
+            if (!ObjectUtils.isEmpty(errors)) {
+                LOG.error("Errors during updating User Information {}", userDTO.getEmail());
+                return errors;
+            }
 
-        User user = userService.updateUser(userDTO, principal);
-        UserDTO updatedUser = userFacade.userToUserDTO(user);
+            User user = userService.updateUser(userDTO, principal);
+            UserDTO updatedUser = userFacade.userToUserDTO(user);
 
-        LOG.info("Updating User {}", userService.getCurrentUser(principal).getUsername());
-        return new ResponseEntity<>(updatedUser, HttpStatus.OK);
+            LOG.info("Updating User {}", userService.getCurrentUser(principal).getUsername());
+            return new ResponseEntity<>(updatedUser, HttpStatus.OK);
+        });
     }
 
     @PostMapping("/open-account")
-    public ResponseEntity<Object> openAccount(Principal principal) {
-        userService.openAccount(principal);
-        LOG.info("Make Visible for everyone User {}", userService.getCurrentUser(principal));
-        return new ResponseEntity<>("Account " + userService.getCurrentUser(principal).getUsername()
-                + " is visible for everyone", HttpStatus.OK);
+    public WebAsyncTask<ResponseEntity<Object>> openAccount(Principal principal) {
+        return bulkheads.submit(EBulkhead.WRITE, () -> {
+            userService.openAccount(principal);
+            LOG.info("Make Visible for everyone User {}", userService.getCurrentUser(principal));
+            return new ResponseEntity<>("Account " + userService.getCurrentUser(principal).getUsername()
+                    + " is visible for everyone", HttpStatus.OK);
+        });
     }
 
     @PostMapping("/close-account")
-    public ResponseEntity<Object> closeAccount(Principal principal) {
-        userService.closeAccount(principal);
-        LOG.info("Make Visible only for friends User {}", userService.getCurrentUser(principal));
-        return new ResponseEntity<>("Account " + userService.getCurrentUser(principal).getUsername()
-                + " is visible only for friends", HttpStatus.OK);
+    public WebAsyncTask<ResponseEntity<Object>> closeAccount(Principal principal) {
+        return bulkheads.submit(EBulkhead.WRITE, () -> {
+            userService.closeAccount(principal);
+            LOG.info("Make Visible only for friends User {}", userService.getCurrentUser(principal));
+            return new ResponseEntity<>("Account " + userService.getCurrentUser(principal).getUsername()
+                    + " is visible only for friends", HttpStatus.OK);
+        });
     }
 
     @PostMapping("/delete")
-    public ResponseEntity<Object> deleteAccount(Principal principal) {
-        userService.inactiveAccount(principal);
-        LOG.info("Deleting User {}", userService.getCurrentUser(principal).getUsername());
-        return new ResponseEntity<>("Account is deleted", HttpStatus.OK);
+    public WebAsyncTask<ResponseEntity<Object>> deleteAccount(Principal principal) {
+        return bulkheads.submit(EBulkhead.WRITE, () -> {
+            userService.inactiveAccount(principal);
+            LOG.info("Deleting User {}", userService.getCurrentUser(principal).getUsername());
+            return new ResponseEntity<>("Account is deleted", HttpStatus.OK);
+        });
     }
 
     @GetMapping("/{username}")
-    public ResponseEntity<Object> getUser(@PathVariable(value = "username") String username,
-                                          Principal principal) {
-        User user = userService.getUser(username, principal);
-        if (user.equals(userService.getCurrentUser(principal))) {
-            UserDTO currentUserDTO = userFacade.userToUserDTO(userService.getCurrentUser(principal));
-            return new ResponseEntity<>(currentUserDTO, HttpStatus.NOT_ACCEPTABLE);
-        }
+    public WebAsyncTask<ResponseEntity<Object>> getUser(@PathVariable(value = "username") String username,
+                                                        Principal principal) {
+        return bulkheads.submit(EBulkhead.POINT_READ, () -> {
+            User user = userService.getUser(username, principal);
+            if (user.equals(userService.getCurrentUser(principal))) {
+                UserDTO currentUserDTO = userFacade.userToUserDTO(userService.getCurrentUser(principal));
+                return new ResponseEntity<>(currentUserDTO, HttpStatus.NOT_ACCEPTABLE);
+            }
 
-        UserDTO userDTO = userFacade.userToUserDTO(user);
-        return new ResponseEntity<>(userDTO, HttpStatus.OK);
+            UserDTO userDTO = userFacade.userToUserDTO(user);
+            return new ResponseEntity<>(userDTO, HttpStatus.OK);
+        });
     }
 
     @PostMapping("/{username}/send-request")
-    public ResponseEntity<Object> sendFriendRequest(@PathVariable(value = "username") String username,
-                                                    Principal principal) {
-        User friend = userService.sendFriendRequest(username, principal);
-        return new ResponseEntity<>("User " + userService.getCurrentUser(principal).getUsername() +
-                " sent friend request to user " + friend.getUsername(), HttpStatus.OK);
+    public WebAsyncTask<ResponseEntity<Object>> sendFriendRequest(@PathVariable(value = "username") String username,
+                                                                  Principal principal) {
+        return bulkheads.submit(EBulkhead.WRITE, () -> {
+            User friend = userService.sendFriendRequest(username, principal);
+            return new ResponseEntity<>("User " + userService.getCurrentUser(principal).getUsername() +
+                    " sent friend request to user " + friend.getUsername(), HttpStatus.OK);
+        });
     }
 
     @PostMapping("/{username}/accept-request")
-    public ResponseEntity<Object> acceptFriendRequest(@PathVariable(value = "username") String username,
-                                                    Principal principal) {
-        User friend = userService.acceptFriendRequest(username, principal);
-        return new ResponseEntity<>("User " + userService.getCurrentUser(principal).getUsername() +
-                " accepted friend request from user " + friend.getUsername(),  HttpStatus.OK);
+    public WebAsyncTask<ResponseEntity<Object>> acceptFriendRequest(@PathVariable(value = "username") String username,
+                                                                    Principal principal) {
+        return bulkheads.submit(EBulkhead.WRITE, () -> {
+            User friend = userService.acceptFriendRequest(username, principal);
+            return new ResponseEntity<>("User " + userService.getCurrentUser(principal).getUsername() +
+                    " accepted friend request from user " + friend.getUsername(),  HttpStatus.OK);
+        });
     }
 
     @GetMapping("/all-friends")
-    public ResponseEntity<Object> getAllFriendByCurrentUser(Principal principal) {
-        List<UserDTO> userDTOList = userService.getFriendsByCurrentUser(principal)
-                .stream()
-                .map(userFacade::userToUserDTO)
-                .collect(Collectors.toList());
+    public WebAsyncTask<ResponseEntity<Object>> getAllFriendByCurrentUser(Principal principal) {
+        return bulkheads.submit(EBulkhead.FEED, () -> {
+            List<UserDTO> userDTOList = userService.getFriendsByCurrentUser(principal)
+                    .stream()
+                    .map(userFacade::userToUserDTO)
+                    .collect(Collectors.toList());
 
-        return new ResponseEntity<>(userDTOList, HttpStatus.OK);
+            return new ResponseEntity<>(userDTOList, HttpStatus.OK);
+        });
     }
 
     @GetMapping("/{username}/all-friends")
-    public ResponseEntity<Object> getAllFriendsByUser(@PathVariable(value = "username")
-                                                                  String username, Principal principal) {
-        List<UserDTO> userDTOList = userService.getFriendsByUser(username, principal)
-                .stream()
-                .map(userFacade::userToUserDTO)
-                .collect(Collectors.toList());
+    public WebAsyncTask<ResponseEntity<Object>> getAllFriendsByUser(@PathVariable(value = "username")
+                                                                    String username, Principal principal) {
+        return bulkheads.submit(EBulkhead.FEED, () -> {
+            List<UserDTO> userDTOList = userService.getFriendsByUser(username, principal)
+                    .stream()
+                    .map(userFacade::userToUserDTO)
+                    .collect(Collectors.toList());
 
-        return new ResponseEntity<>(userDTOList, HttpStatus.OK);
+            return new ResponseEntity<>(userDTOList, HttpStatus.OK);
+        });
+    }
+
+    @GetMapping("/{username}/mutual-friends")
+    public WebAsyncTask<ResponseEntity<MutualFriendsDTO>> getMutualFriends(@PathVariable(value = "username") String username,
+                                                                           @RequestParam(value = "page", defaultValue = "0") int page,
+                                                                           @RequestParam(value = "size", defaultValue = "20") int size,
+                                                                           Principal principal) {
+        return bulkheads.submit(EBulkhead.FEED, () -> {
+            int pageSize = Math.min(Math.max(size, 1), 100);
+            int pageNumber = Math.max(page, 0);
+            List<UserDTO> userDTOList = userService.getMutualFriends(username, principal, pageNumber, pageSize)
+                    .stream()
+                    .map(userFacade::userToUserDTO)
+                    .collect(Collectors.toList());
+
+            MutualFriendsDTO mutualFriendsDTO = new MutualFriendsDTO();
+            mutualFriendsDTO.setCount(userService.countMutualFriends(username, principal));
+            mutualFriendsDTO.setPage(pageNumber);
+            mutualFriendsDTO.setSize(pageSize);
+            mutualFriendsDTO.setUsers(userDTOList);
+            return new ResponseEntity<>(mutualFriendsDTO, HttpStatus.OK);
+        });
+    }
+
+    @GetMapping("/{username}/distance")
+    public WebAsyncTask<ResponseEntity<SeparationDTO>> getDistance(@PathVariable(value = "username") String username,
+                                                                   Principal principal) {
+        return bulkheads.submit(EBulkhead.FEED, () -> {
+            FriendGraphService.PathResult result = userService.getFriendshipPath(username, principal);
+
+            SeparationDTO separationDTO = new SeparationDTO();
+            separationDTO.setFound(result.isFound());
+            separationDTO.setBudgetExceeded(result.isBudgetExceeded());
+            if (result.isFound()) {
+                separationDTO.setDistance(result.getDistance());
+            }
+            return new ResponseEntity<>(separationDTO, HttpStatus.OK);
+        });
+    }
+
+    @GetMapping("/{username}/summary")
+    public WebAsyncTask<ResponseEntity<ProfileSummaryDTO>> getProfileSummary(@PathVariable(value = "username") String username,
+                                                                             Principal principal) {
+        return bulkheads.submit(EBulkhead.POINT_READ, () -> {
+            ProfileSummaryDTO summary = userService.getProfileSummary(username, principal);
+
+            LOG.info("Getting profile summary of user {}", username);
+            return new ResponseEntity<>(summary, HttpStatus.OK);
+        });
     }
 
     @GetMapping("/sent-requests")
-    public ResponseEntity<Object> getAllSentFriendRequests(Principal principal) {
-        List<UserDTO> userDTOList = userService.getSentFriendRequests(principal)
-                .stream()
-                .map(userFacade::userToUserDTO)
-                .collect(Collectors.toList());
+    public WebAsyncTask<ResponseEntity<Object>> getAllSentFriendRequests(Principal principal) {
+        return bulkheads.submit(EBulkhead.FEED, () -> {
+            List<UserDTO> userDTOList = userService.getSentFriendRequests(principal)
+                    .stream()
+                    .map(userFacade::userToUserDTO)
+                    .collect(Collectors.toList());
 
-        return new ResponseEntity<>(userDTOList, HttpStatus.OK);
+            return new ResponseEntity<>(userDTOList, HttpStatus.OK);
+        });
     }
 
     @GetMapping("/retrieved-requests")
-    public ResponseEntity<Object> getAllRetrievedFriendRequests(Principal principal) {
-        List<UserDTO> userDTOList = userService.getRetrievedFriendRequests(principal)
-                .stream()
-                .map(userFacade::userToUserDTO)
-                .collect(Collectors.toList());
+    public WebAsyncTask<ResponseEntity<Object>> getAllRetrievedFriendRequests(Principal principal) {
+        return bulkheads.submit(EBulkhead.FEED, () -> {
+            List<UserDTO> userDTOList = userService.getRetrievedFriendRequests(principal)
+                    .stream()
+                    .map(userFacade::userToUserDTO)
+                    .collect(Collectors.toList());
+
+            return new ResponseEntity<>(userDTOList, HttpStatus.OK);
+        });
+    }
+
+    @GetMapping("/requests/inbox")
+    public WebAsyncTask<ResponseEntity<FriendRequestsPageDTO>> getPendingInbox(@RequestParam(value = "page", defaultValue = "0") int page,
+                                                                               @RequestParam(value = "size", defaultValue = "20") int size,
+                                                                               Principal principal) {
+        return bulkheads.submit(EBulkhead.POINT_READ, () -> {
+            FriendRequestsPageDTO requestsPage = userService.getPendingInbox(principal, Math.max(page, 0),
+                    Math.min(Math.max(size, 1), 100));
+            return new ResponseEntity<>(requestsPage, HttpStatus.OK);
+        });
+    }
 
-        return new ResponseEntity<>(userDTOList, HttpStatus.OK);
+    @GetMapping("/requests/outbox")
+    public WebAsyncTask<ResponseEntity<FriendRequestsPageDTO>> getPendingOutbox(@RequestParam(value = "page", defaultValue = "0") int page,
+                                                                                @RequestParam(value = "size", defaultValue = "20") int size,
+                                                                                Principal principal) {
+        return bulkheads.submit(EBulkhead.POINT_READ, () -> {
+            FriendRequestsPageDTO requestsPage = userService.getPendingOutbox(principal, Math.max(page, 0),
+                    Math.min(Math.max(size, 1), 100));
+            return new ResponseEntity<>(requestsPage, HttpStatus.OK);
+        });
     }
 
     @GetMapping("/all-users")
-    public ResponseEntity<Object> getAllUsers(Principal principal) {
-        User currentUser = userService.getCurrentUser(principal);
-        List<UserDTO> userDTOList = userService.getAllUsers()
-                .stream()
-                .filter(user -> !user.equals(currentUser))
-                .map(userFacade::userToUserDTO)
-                .collect(Collectors.toList());
-        return new ResponseEntity<>(userDTOList, HttpStatus.OK);
+    public WebAsyncTask<ResponseEntity<Object>> getAllUsers(Principal principal) {
+        return bulkheads.submit(EBulkhead.FEED, () -> {
+            User currentUser = userService.getCurrentUser(principal);
+            List<UserDTO> userDTOList = userService.getAllUsers()
+                    .stream()
+                    .filter(user -> !user.equals(currentUser))
+                    .map(userFacade::userToUserDTO)
+                    .collect(Collectors.toList());
+            return new ResponseEntity<>(userDTOList, HttpStatus.OK);
+        });
     }
 }
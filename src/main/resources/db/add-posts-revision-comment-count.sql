@@ -0,0 +1,8 @@
+-- One-off migration for posts tables partitioned by an earlier partition-posts.sql, which did not
+-- carry the revision and comment_count columns over. Fill comment_count afterwards with
+-- backfill-post-comment-count.sql. Safe to re-run.
+--
+--   psql -d social_network -v ON_ERROR_STOP=1 -f src/main/resources/db/add-posts-revision-comment-count.sql
+
+alter table posts add column if not exists revision bigint;
+alter table posts add column if not exists comment_count integer not null default 0;
@@ -0,0 +1,8 @@
+-- One-off migration: fills friendships.recipient_id for rows created before the column existed.
+-- Pending requests without it do not show up in the paged inbox and outbox. Safe to re-run.
+--
+--   psql -d social_network -v ON_ERROR_STOP=1 -f src/main/resources/db/backfill-friendship-recipient.sql
+
+update friendships
+set recipient_id = case when requester_id = low_user_id then high_user_id else low_user_id end
+where recipient_id is null;
@@ -0,0 +1,9 @@
+-- One-off migration: fills posts.comment_count for posts created before the column existed.
+-- The column defaults to 0, so without it older posts report no comments. Safe to re-run.
+--
+--   psql -d social_network -v ON_ERROR_STOP=1 -f src/main/resources/db/backfill-post-comment-count.sql
+
+update posts p
+set comment_count = c.active
+from (select post_id, count(*) as active from comments where status = 'ACTIVE' group by post_id) c
+where c.post_id = p.id and p.comment_count <> c.active;
@@ -0,0 +1,22 @@
+-- One-off migration: copies the directed rows of the old friends table into friendships,
+-- one row per unordered pair. When both directions exist the accepted one wins, otherwise
+-- the older request. Pairs already present in friendships are left alone, so it is safe to
+-- re-run. The profile counters catch up on the next ProfileCounterService pass.
+--
+--   psql -d social_network -v ON_ERROR_STOP=1 -f src/main/resources/db/migrate-friendships.sql
+
+insert into friendships (low_user_id, high_user_id, requester_id, recipient_id, state, created_date)
+select distinct on (least(first_user_id, second_user_id), greatest(first_user_id, second_user_id))
+       least(first_user_id, second_user_id),
+       greatest(first_user_id, second_user_id),
+       first_user_id,
+       second_user_id,
+       case when is_accepted then 'ACCEPTED' else 'PENDING' end,
+       created_date
+from friends
+where first_user_id is not null
+  and second_user_id is not null
+  and first_user_id <> second_user_id
+order by least(first_user_id, second_user_id), greatest(first_user_id, second_user_id),
+         is_accepted desc nulls last, created_date
+on conflict (low_user_id, high_user_id) do nothing;
@@ -0,0 +1,82 @@
+-- One-off migration: turns the posts heap table into a table range-partitioned by created_date
+-- with one partition per month. Run it once with psql while the application is stopped:
+--
+--   psql -d social_network -v ON_ERROR_STOP=1 -f src/main/resources/db/partition-posts.sql
+--
+-- Afterwards PostPartitionService keeps creating the upcoming monthly partitions.
+-- A partitioned table can only have unique keys that contain the partition key, so the primary
+-- key becomes (id, created_date) and foreign keys pointing at posts(id) are dropped.
+-- Tables partitioned with an earlier version of this script lack revision and comment_count;
+-- add them with add-posts-revision-comment-count.sql.
+
+begin;
+
+lock table posts in access exclusive mode;
+
+do $$
+declare
+    r record;
+begin
+    for r in select conrelid::regclass as tbl, conname
+             from pg_constraint
+             where contype = 'f' and confrelid = 'posts'::regclass
+    loop
+        execute format('alter table %s drop constraint %I', r.tbl, r.conname);
+    end loop;
+end $$;
+
+update posts set created_date = now() where created_date is null;
+
+-- columns added after the first version of this script; present already if the application ran
+alter table posts add column if not exists revision bigint;
+alter table posts add column if not exists comment_count integer not null default 0;
+
+alter sequence posts_id_seq owned by none;
+alter table posts rename to posts_unpartitioned;
+
+create table posts (
+    id                  bigint       not null default nextval('posts_id_seq'),
+    caption             varchar(255),
+    likes               integer,
+    status              varchar(255),
+    status_changed_date timestamp,
+    revision            bigint,
+    comment_count       integer      not null default 0,
+    user_id             bigint,
+    created_date        timestamp    not null,
+    primary key (id, created_date)
+) partition by range (created_date);
+
+alter sequence posts_id_seq owned by posts.id;
+
+do $$
+declare
+    month_start date;
+    last_month  date;
+begin
+    select date_trunc('month', coalesce(min(created_date), now()))::date,
+           date_trunc('month', now())::date
+    into month_start, last_month
+    from posts_unpartitioned;
+
+    while month_start <= last_month + interval '3 months' loop
+        execute format('create table %I partition of posts for values from (%L) to (%L)',
+                       'posts_p' || to_char(month_start, 'YYYY_MM'),
+                       month_start, (month_start + interval '1 month')::date);
+        month_start := (month_start + interval '1 month')::date;
+    end loop;
+end $$;
+
+create table posts_default partition of posts default;
+
+insert into posts (id, caption, likes, status, status_changed_date, revision, comment_count, user_id, created_date)
+select id, caption, likes, status, status_changed_date, revision, comment_count, user_id, created_date
+from posts_unpartitioned;
+
+drop table posts_unpartitioned;
+
+create index idx_posts_user_created on posts (user_id, created_date);
+create index idx_posts_status_created on posts (status, created_date);
+create index idx_posts_status_changed on posts (status, status_changed_date);
+
+commit;
@@ -0,0 +1,108 @@
+package com.project.social_network.bulkhead;
+
+import com.project.social_network.exceptions.ServiceUnavailableException;
+import com.project.social_network.sql.SqlStatementCounter;
+import com.project.social_network.sql.SqlStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import javax.servlet.AsyncEvent;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadTest {
+
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private final Bulkhead bulkhead = new Bulkhead(EBulkhead.FEED, new BulkheadProperties.Pool(1, 1, 60000));
+
+    @AfterEach
+    void tearDown() {
+        unblock.countDown();
+        bulkhead.shutdown();
+    }
+
+    @Test
+    void rejectsOnceThreadsAndQueueAreTaken() throws Exception {
+        start(bulkhead.submit(this::blockingCall));
+        start(bulkhead.submit(this::blockingCall));
+
+        assertThatThrownBy(() -> bulkhead.submit(() -> "rejected"))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(bulkhead.getStats().getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void timeoutOfQueuedTaskReturnsItsPermit() throws Exception {
+        start(bulkhead.submit(this::blockingCall));
+        StandardServletAsyncWebRequest queued = start(bulkhead.submit(this::blockingCall));
+
+        // the queued task is cancelled by Spring and never runs, the permit must come back anyway
+        MockHttpServletRequest request = (MockHttpServletRequest) queued.getRequest();
+        AsyncEvent event = new AsyncEvent(request.getAsyncContext());
+        queued.onTimeout(event);
+        queued.onComplete(event);
+
+        BulkheadStats stats = bulkhead.getStats();
+        assertThat(stats.getTimeouts()).isEqualTo(1);
+        assertThat(stats.getCompleted()).isEqualTo(1);
+        start(bulkhead.submit(() -> "admitted"));
+    }
+
+    @Test
+    void permitIsReturnedOnlyOnceWhenTimeoutIsFollowedByCompletion() throws Exception {
+        StandardServletAsyncWebRequest running = start(bulkhead.submit(this::blockingCall));
+        MockHttpServletRequest request = (MockHttpServletRequest) running.getRequest();
+        AsyncEvent event = new AsyncEvent(request.getAsyncContext());
+        running.onTimeout(event);
+        running.onComplete(event);
+
+        start(bulkhead.submit(this::blockingCall));
+        start(bulkhead.submit(this::blockingCall));
+        assertThatThrownBy(() -> bulkhead.submit(() -> "rejected"))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void handlerSeesTheRequestsSqlStatistics() throws Exception {
+        SqlStatementCounter.start(SqlStatementCounter.DEFAULT_N_PLUS_ONE_THRESHOLD);
+        SqlStatistics statistics = SqlStatementCounter.current();
+        WebAsyncTask<SqlStatistics> task;
+        try {
+            task = bulkhead.submit(SqlStatementCounter::current);
+        } finally {
+            SqlStatementCounter.stop();
+        }
+
+        StandardServletAsyncWebRequest asyncWebRequest = start(task);
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(asyncWebRequest.getRequest());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!asyncManager.hasConcurrentResult() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(asyncManager.getConcurrentResult()).isSameAs(statistics);
+    }
+
+    private String blockingCall() throws InterruptedException {
+        unblock.await();
+        return "done";
+    }
+
+    private static StandardServletAsyncWebRequest start(WebAsyncTask<?> task) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        StandardServletAsyncWebRequest asyncWebRequest =
+                new StandardServletAsyncWebRequest(request, new MockHttpServletResponse());
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(asyncWebRequest);
+        asyncManager.startCallableProcessing(task);
+        return asyncWebRequest;
+    }
+}
@@ -0,0 +1,184 @@
+package com.project.social_network.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.project.social_network.dto.PostDTO;
+import com.project.social_network.entity.Post;
+import com.project.social_network.entity.User;
+import com.project.social_network.entity.enums.EStatus;
+import com.project.social_network.facade.CommentFacade;
+import com.project.social_network.facade.PostFacade;
+import com.project.social_network.fields.SparseFieldsAdvice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the CPU spent writing post list responses with plain Jackson serialization and with
+ * the serialized-response cache. Pages are drawn from a skewed popularity distribution and a
+ * share of the posts is modified between pages, which invalidates their cached bytes.
+ *
+ * Run with:
+ *   ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.project.social_network.cache.SerializationBenchmark
+ *
+ * Properties (defaults in brackets): bench.posts [10000], bench.page-size [50],
+ * bench.pages [200000], bench.likes-per-post [20], bench.write-ratio [0.01], bench.seed [42],
+ * bench.cache-bytes [33554432].
+ */
+public class SerializationBenchmark {
+
+    // created dates carry microseconds, as read back from created_date
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws IOException {
+        int postCount = Integer.getInteger("bench.posts", 10_000);
+        int pageSize = Integer.getInteger("bench.page-size", 50);
+        int pages = Integer.getInteger("bench.pages", 200_000);
+        int likesPerPost = Integer.getInteger("bench.likes-per-post", 20);
+        double writeRatio = Double.parseDouble(System.getProperty("bench.write-ratio", "0.01"));
+        long seed = Long.getLong("bench.seed", 42L);
+        long cacheBytes = Long.getLong("bench.cache-bytes", 32L << 20);
+
+        // as configured by Spring Boot
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.setFilterProvider(new SimpleFilterProvider()
+                .addFilter(SparseFieldsAdvice.SPARSE_FIELDS_FILTER, SimpleBeanPropertyFilter.serializeAll()));
+        PostFacade postFacade = new PostFacade();
+        SerializedResponseCache postCache = new SerializedResponseCache("posts", cacheBytes, 64 << 10);
+        CachedResponseWriter writer = new CachedResponseWriter(postCache,
+                new SerializedResponseCache("comments", 1 << 20, 64 << 10),
+                postFacade, new CommentFacade(), objectMapper);
+        JsonFragmentsHttpMessageConverter converter = new JsonFragmentsHttpMessageConverter();
+
+        // every run starts from the same posts, since runs modify them
+        Random random = new Random(seed);
+        run("warmup", createPosts(postCount, likesPerPost, random), pageSize, pages / 10, writeRatio, seed,
+                page -> plain(page, postFacade, objectMapper));
+        run("warmup", createPosts(postCount, likesPerPost, random), pageSize, pages / 10, writeRatio, seed,
+                page -> cached(page, writer, converter));
+        postCache.clear();
+
+        long plainCpu = run("plain jackson", createPosts(postCount, likesPerPost, new Random(seed)),
+                pageSize, pages, writeRatio, seed + 1, page -> plain(page, postFacade, objectMapper));
+        long cachedCpu = run("response cache", createPosts(postCount, likesPerPost, new Random(seed)),
+                pageSize, pages, writeRatio, seed + 1, page -> cached(page, writer, converter));
+
+        CacheStats stats = postCache.getStats();
+        System.out.printf("cache: %d entries, %.1f MiB, hit rate %.3f, %d evictions%n",
+                stats.getEntries(), stats.getUsedBytes() / (1024.0 * 1024.0), stats.getHitRate(),
+                stats.getEvictions());
+        System.out.printf("cpu ratio cached/plain: %.3f%n", (double) cachedCpu / plainCpu);
+    }
+
+    private static long run(String label, List<Post> posts, int pageSize, int pages, double writeRatio,
+                            long seed, PageWriter pageWriter) throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Random random = new Random(seed);
+        List<Post> page = new ArrayList<>(pageSize);
+        long bytes = 0;
+
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        long wallStart = System.nanoTime();
+        for (int i = 0; i < pages; i++) {
+            page.clear();
+            for (int j = 0; j < pageSize; j++) {
+                page.add(posts.get(skewedIndex(random, posts.size())));
+            }
+            if (random.nextDouble() < writeRatio * pageSize) {
+                Post post = page.get(random.nextInt(pageSize));
+                post.setLikes(post.getLikes() + 1);
+                post.getLikedUsers().add("user" + random.nextInt(1_000_000));
+                // stands in for PostRepository.incrementRevision
+                post.setRevision(post.getRevisionOrZero() + 1);
+            }
+            bytes += pageWriter.write(page);
+        }
+        long cpu = threads.getCurrentThreadCpuTime() - cpuStart;
+        long wall = System.nanoTime() - wallStart;
+
+        if (!"warmup".equals(label)) {
+            System.out.printf("%-15s cpu %8.1f ms  wall %8.1f ms  %8.1f us/page  %6.1f MiB written%n",
+                    label, cpu / 1e6, wall / 1e6, cpu / 1e3 / pages, bytes / (1024.0 * 1024.0));
+        }
+        return cpu;
+    }
+
+    private static long plain(List<Post> page, PostFacade postFacade, ObjectMapper objectMapper) throws IOException {
+        List<PostDTO> dtos = new ArrayList<>(page.size());
+        for (Post post : page) {
+            dtos.add(postFacade.postToPostDTO(post));
+        }
+        return objectMapper.writeValueAsBytes(dtos).length;
+    }
+
+    private static long cached(List<Post> page, CachedResponseWriter writer,
+                               JsonFragmentsHttpMessageConverter converter) throws IOException {
+        JsonFragments fragments = writer.writePosts(page);
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) fragments.contentLength());
+        converter.write(fragments, null, new HttpOutputMessage() {
+            private final HttpHeaders headers = new HttpHeaders();
+
+            @Override
+            public OutputStream getBody() {
+                return out;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        });
+        return out.size();
+    }
+
+    // roughly Zipfian: low indexes are requested far more often than high ones
+    private static int skewedIndex(Random random, int size) {
+        double u = random.nextDouble();
+        return (int) Math.min(size - 1, Math.floor(Math.pow(size, u)) - 1);
+    }
+
+    private static List<Post> createPosts(int count, int likesPerPost, Random random) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < Math.max(count / 10, 1); i++) {
+            User user = new User();
+            user.setId((long) i + 1);
+            user.setUsername("user" + (i + 1));
+            users.add(user);
+        }
+        List<Post> posts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Post post = new Post();
+            post.setId((long) i + 1);
+            post.setCaption("Caption of post " + (i + 1) + " with some more words to look like a real caption");
+            post.setUser(users.get(random.nextInt(users.size())));
+            post.setStatus(EStatus.ACTIVE);
+            post.setCreatedDate(CREATED.minusNanos(random.nextInt(Integer.MAX_VALUE) * 1000L));
+            int likes = random.nextInt(likesPerPost * 2 + 1);
+            for (int j = 0; j < likes; j++) {
+                post.getLikedUsers().add("user" + random.nextInt(1_000_000));
+            }
+            post.setLikes(post.getLikedUsers().size());
+            posts.add(post);
+        }
+        return posts;
+    }
+
+    private interface PageWriter {
+        long write(List<Post> page) throws IOException;
+    }
+}
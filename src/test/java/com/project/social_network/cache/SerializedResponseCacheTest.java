@@ -0,0 +1,93 @@
+package com.project.social_network.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SerializedResponseCacheTest {
+
+    private static final int ENTRY_BYTES = 100;
+    private static final long ENTRY_SIZE = ENTRY_BYTES + SerializedResponseCache.ENTRY_OVERHEAD;
+
+    private final AtomicInteger encodings = new AtomicInteger();
+
+    @Test
+    void servesCachedBytesOnlyForTheSameRevision() {
+        SerializedResponseCache cache = new SerializedResponseCache("posts", 10 * ENTRY_SIZE, ENTRY_BYTES);
+
+        byte[] first = cache.get(1L, 3, encoder());
+        assertThat(cache.get(1L, 3, encoder())).isSameAs(first);
+        byte[] next = cache.get(1L, 4, encoder());
+
+        assertThat(next).isNotSameAs(first);
+        assertThat(cache.get(1L, 4, encoder())).isSameAs(next);
+        assertThat(encodings).hasValue(2);
+        assertThat(cache.getStats().getHits()).isEqualTo(2);
+    }
+
+    @Test
+    void evictOlderThanKeepsEntriesAtOrAboveTheVersion() {
+        SerializedResponseCache cache = new SerializedResponseCache("posts", 10 * ENTRY_SIZE, ENTRY_BYTES);
+        cache.get(1L, 5, encoder());
+
+        cache.evictOlderThan(1L, 5);
+        assertThat(cache.getStats().getEntries()).isEqualTo(1);
+
+        cache.evictOlderThan(1L, 6);
+        assertThat(cache.getStats().getEntries()).isZero();
+        assertThat(cache.getStats().getUsedBytes()).isZero();
+    }
+
+    @Test
+    void clockGivesReferencedEntriesASecondChance() {
+        SerializedResponseCache cache = new SerializedResponseCache("posts", 3 * ENTRY_SIZE, ENTRY_BYTES);
+        cache.get(1L, 0, encoder());
+        cache.get(2L, 0, encoder());
+        cache.get(3L, 0, encoder());
+        // entries 1 and 3 are read again, 2 is not
+        cache.get(1L, 0, encoder());
+        cache.get(3L, 0, encoder());
+
+        cache.get(4L, 0, encoder());
+
+        encodings.set(0);
+        cache.get(1L, 0, encoder());
+        cache.get(3L, 0, encoder());
+        cache.get(4L, 0, encoder());
+        assertThat(encodings).hasValue(0);
+        cache.get(2L, 0, encoder());
+        assertThat(encodings).hasValue(1);
+        assertThat(cache.getStats().getEvictions()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void staysWithinItsByteBudget() {
+        SerializedResponseCache cache = new SerializedResponseCache("posts", 5 * ENTRY_SIZE, ENTRY_BYTES);
+        for (long id = 0; id < 100; id++) {
+            cache.get(id, 0, encoder());
+        }
+
+        assertThat(cache.getStats().getUsedBytes()).isLessThanOrEqualTo(5 * ENTRY_SIZE);
+        assertThat(cache.getStats().getEntries()).isEqualTo(5);
+    }
+
+    @Test
+    void doesNotCacheOversizedEntries() {
+        SerializedResponseCache cache = new SerializedResponseCache("posts", 10 * ENTRY_SIZE, ENTRY_BYTES - 1);
+        cache.get(1L, 0, encoder());
+        cache.get(1L, 0, encoder());
+
+        assertThat(encodings).hasValue(2);
+        assertThat(cache.getStats().getEntries()).isZero();
+    }
+
+    private Supplier<byte[]> encoder() {
+        return () -> {
+            encodings.incrementAndGet();
+            return new byte[ENTRY_BYTES];
+        };
+    }
+}
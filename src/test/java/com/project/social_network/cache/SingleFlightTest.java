@@ -0,0 +1,156 @@
+package com.project.social_network.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int FOLLOWERS = 4;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch leaderStarted = new CountDownLatch(1);
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        unblock.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void followersShareTheLeadersResult() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", 5000);
+        Future<String> leader = executor.submit(() -> singleFlight.load(1L, blockingLoader("post 1")));
+        leaderStarted.await();
+        List<Future<String>> followers = startFollowers(singleFlight, () -> "loaded by follower");
+
+        unblock.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("post 1");
+        for (Future<String> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("post 1");
+        }
+        SingleFlightStats stats = singleFlight.getStats();
+        assertThat(stats.getLoads()).isEqualTo(1);
+        assertThat(stats.getCollapsed()).isEqualTo(FOLLOWERS);
+        assertThat(stats.getInFlight()).isZero();
+    }
+
+    @Test
+    void followersSeeTheLeadersException() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", 5000);
+        Future<String> leader = executor.submit(() -> singleFlight.load(1L, () -> {
+            blockingLoader("unused").get();
+            throw new IllegalArgumentException("post 1 is gone");
+        }));
+        leaderStarted.await();
+        List<Future<String>> followers = startFollowers(singleFlight, () -> "loaded by follower");
+
+        unblock.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        for (Future<String> follower : followers) {
+            assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasRootCauseMessage("post 1 is gone");
+        }
+        assertThat(singleFlight.getStats().getInFlight()).isZero();
+    }
+
+    @Test
+    void followerLoadsItselfWhenTheLeaderIsStuck() throws Exception {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", 50);
+        executor.submit(() -> singleFlight.load(1L, blockingLoader("post 1")));
+        leaderStarted.await();
+
+        assertThat(singleFlight.load(1L, () -> "loaded by follower")).isEqualTo("loaded by follower");
+
+        SingleFlightStats stats = singleFlight.getStats();
+        assertThat(stats.getTimeouts()).isEqualTo(1);
+        assertThat(stats.getLoads()).isEqualTo(2);
+    }
+
+    @Test
+    void differentKeysDoNotWaitForEachOther() {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", 5000);
+        executor.submit(() -> singleFlight.load(1L, blockingLoader("post 1")));
+
+        assertThat(singleFlight.load(2L, () -> "post 2")).isEqualTo("post 2");
+    }
+
+    @Test
+    void finishedLoadsAreNotReused() {
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", 5000);
+
+        singleFlight.load(1L, () -> "post " + calls.incrementAndGet());
+
+        assertThat(singleFlight.load(1L, () -> "post " + calls.incrementAndGet())).isEqualTo("post 2");
+        assertThat(singleFlight.getStats().getCollapsed()).isZero();
+    }
+
+    private Supplier<String> blockingLoader(String value) {
+        return () -> {
+            calls.incrementAndGet();
+            leaderStarted.countDown();
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return value;
+        };
+    }
+
+    /**
+     * Starts the followers and returns once all of them are parked on the leader's load.
+     */
+    private List<Future<String>> startFollowers(SingleFlight<Long, String> singleFlight, Supplier<String> loader)
+            throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(executor.submit(() -> {
+                synchronized (threads) {
+                    threads.add(Thread.currentThread());
+                }
+                return singleFlight.load(1L, loader);
+            }));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!allWaiting(threads) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        return followers;
+    }
+
+    private static boolean allWaiting(List<Thread> threads) {
+        synchronized (threads) {
+            if (threads.size() < FOLLOWERS) {
+                return false;
+            }
+            for (Thread thread : threads) {
+                if (thread.getState() != Thread.State.TIMED_WAITING) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.project.social_network.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.project.social_network.dto.CommentDTO;
+import com.project.social_network.dto.PostDTO;
+import com.project.social_network.fields.SparseFieldsAdvice;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares payload size and encode/decode CPU time of JSON, CBOR and Smile for typical feed
+ * pages (a list of posts) and comment pages.
+ *
+ * Run with:
+ *   ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.project.social_network.codec.EncodingBenchmark
+ *
+ * Properties (defaults in brackets): bench.page-size [50], bench.likes-per-post [20],
+ * bench.iterations [20000], bench.seed [42].
+ */
+public class EncodingBenchmark {
+
+    // created dates carry microseconds, as read back from created_date
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    public static void main(String[] args) throws IOException {
+        int pageSize = Integer.getInteger("bench.page-size", 50);
+        int likesPerPost = Integer.getInteger("bench.likes-per-post", 20);
+        int iterations = Integer.getInteger("bench.iterations", 20_000);
+        Random random = new Random(Long.getLong("bench.seed", 42L));
+
+        List<PostDTO> posts = createPosts(pageSize, likesPerPost, random);
+        List<CommentDTO> comments = createComments(pageSize, random);
+
+        String[] names = {"json", "cbor", "smile"};
+        ObjectMapper[] mappers = {mapper(new JsonFactory()), mapper(new CBORFactory()), mapper(new SmileFactory())};
+
+        System.out.printf("%-8s %-6s %10s %14s %14s%n", "page", "format", "bytes", "encode us/op", "decode us/op");
+        for (int i = 0; i < mappers.length; i++) {
+            report("posts", names[i], mappers[i], posts, PostDTO.class, iterations);
+        }
+        for (int i = 0; i < mappers.length; i++) {
+            report("comments", names[i], mappers[i], comments, CommentDTO.class, iterations);
+        }
+    }
+
+    private static ObjectMapper mapper(JsonFactory factory) {
+        // as configured by Spring Boot
+        ObjectMapper mapper = new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.setFilterProvider(new SimpleFilterProvider()
+                .addFilter(SparseFieldsAdvice.SPARSE_FIELDS_FILTER, SimpleBeanPropertyFilter.serializeAll()));
+        return mapper;
+    }
+
+    private static void report(String page, String format, ObjectMapper mapper, List<?> value,
+                               Class<?> elementType, int iterations) throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        JavaType type = mapper.getTypeFactory().constructCollectionType(List.class, elementType);
+        byte[] encoded = mapper.writeValueAsBytes(value);
+
+        // warm up
+        for (int i = 0; i < iterations / 10; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(value), type);
+        }
+
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < iterations; i++) {
+            encoded = mapper.writeValueAsBytes(value);
+        }
+        long encodeNanos = threads.getCurrentThreadCpuTime() - start;
+
+        start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < iterations; i++) {
+            mapper.readValue(encoded, type);
+        }
+        long decodeNanos = threads.getCurrentThreadCpuTime() - start;
+
+        System.out.printf("%-8s %-6s %10d %14.2f %14.2f%n", page, format, encoded.length,
+                encodeNanos / 1e3 / iterations, decodeNanos / 1e3 / iterations);
+    }
+
+    private static List<PostDTO> createPosts(int count, int likesPerPost, Random random) {
+        List<PostDTO> posts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PostDTO post = new PostDTO();
+            post.setId(1_000_000L + random.nextInt(1_000_000));
+            post.setUsername("user" + random.nextInt(100_000));
+            post.setCaption("Caption of post " + i + " with some more words to look like a real caption");
+            Set<String> likedUsers = new HashSet<>();
+            int likes = random.nextInt(likesPerPost * 2 + 1);
+            for (int j = 0; j < likes; j++) {
+                likedUsers.add("user" + random.nextInt(100_000));
+            }
+            post.setUsersLiked(likedUsers);
+            post.setLikes(likedUsers.size());
+            post.setCreatedDate(CREATED.minusNanos(random.nextInt(Integer.MAX_VALUE) * 1000L));
+            posts.add(post);
+        }
+        return posts;
+    }
+
+    private static List<CommentDTO> createComments(int count, Random random) {
+        List<CommentDTO> comments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CommentDTO comment = new CommentDTO();
+            comment.setId(5_000_000L + random.nextInt(1_000_000));
+            comment.setUsername("user" + random.nextInt(100_000));
+            comment.setMessage("A comment of typical length, about a sentence or two, number " + i);
+            comments.add(comment);
+        }
+        return comments;
+    }
+}
@@ -0,0 +1,97 @@
+package com.project.social_network.concurrency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(singlePermit());
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter, singlePermit());
+
+    @Test
+    void synchronousRequestReleasesItsPermitWhenTheChainReturns() throws Exception {
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(limiter.getStats().getInFlight()).isZero();
+    }
+
+    @Test
+    void asyncRequestHoldsItsPermitUntilItCompletes() throws Exception {
+        MockHttpServletRequest request = request();
+        filter.doFilter(request, new MockHttpServletResponse(), startAsync());
+
+        assertThat(limiter.getStats().getInFlight()).isEqualTo(1);
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(request(), rejected, new MockFilterChain());
+        assertThat(rejected.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        assertThat(limiter.getStats().getInFlight()).isZero();
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(request(), admitted, new MockFilterChain());
+        assertThat(admitted.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void permitIsReleasedOnlyOnceWhenTimeoutIsFollowedByCompletion() throws Exception {
+        MockHttpServletRequest request = request();
+        filter.doFilter(request, new MockHttpServletResponse(), startAsync());
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+
+        AsyncEvent event = new AsyncEvent(asyncContext);
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(event);
+        }
+        asyncContext.complete();
+
+        assertThat(limiter.getStats().getInFlight()).isZero();
+    }
+
+    @Test
+    void permitIsReleasedWhenTheChainThrows() {
+        FilterChain failing = (request, response) -> {
+            throw new ServletException("handler failed");
+        };
+
+        try {
+            filter.doFilter(request(), new MockHttpServletResponse(), failing);
+        } catch (ServletException | IOException expected) {
+            // the failure itself is not under test
+        }
+
+        assertThat(limiter.getStats().getInFlight()).isZero();
+    }
+
+    private static FilterChain startAsync() {
+        return (request, response) -> request.startAsync(request, response);
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/posts/1");
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private static ConcurrencyLimitProperties singlePermit() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        properties.setMaxLimit(1);
+        return properties;
+    }
+}
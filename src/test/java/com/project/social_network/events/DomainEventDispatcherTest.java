@@ -0,0 +1,82 @@
+package com.project.social_network.events;
+
+import com.project.social_network.entity.OutboxEvent;
+import com.project.social_network.entity.enums.EEventType;
+import com.project.social_network.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DomainEventDispatcherTest {
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final EventRingBuffer ringBuffer = new EventRingBuffer(16);
+    private final DomainEventPublisher publisher = new DomainEventPublisher(outboxEventRepository, ringBuffer);
+    private final List<Long> delivered = new ArrayList<>();
+    private final List<Long> markedProcessed = new ArrayList<>();
+    private boolean failing;
+    private DomainEventDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        DomainEventListener listener = events -> {
+            for (DomainEvent event : events) {
+                delivered.add(event.getOutboxId());
+            }
+            if (failing) {
+                throw new IllegalStateException("listener down");
+            }
+        };
+        dispatcher = new DomainEventDispatcher(ringBuffer, publisher, outboxEventRepository,
+                Collections.singletonList(listener), 64, 30);
+        // the dispatcher reuses its id list, copy it when it is passed in
+        when(outboxEventRepository.markProcessed(any())).thenAnswer(invocation -> {
+            markedProcessed.addAll(invocation.getArgument(0));
+            return 1;
+        });
+        when(outboxEventRepository.findByProcessedFalseAndCreatedDateBeforeOrderByIdAsc(any(), any()))
+                .thenReturn(Collections.singletonList(outboxEvent(1L)));
+    }
+
+    @Test
+    void replayDoesNotDuplicateEventsStillInTheBuffer() {
+        dispatcher.replayStale();
+        dispatcher.replayStale();
+
+        assertThat(ringBuffer.size()).isEqualTo(1);
+        assertThat(dispatcher.dispatchBatch()).isEqualTo(1);
+        assertThat(delivered).containsExactly(1L);
+        assertThat(markedProcessed).containsExactly(1L);
+    }
+
+    @Test
+    void failedBatchIsLeftUnprocessedAndReplayed() {
+        failing = true;
+        dispatcher.replayStale();
+        dispatcher.dispatchBatch();
+        assertThat(markedProcessed).isEmpty();
+
+        failing = false;
+        dispatcher.replayStale();
+        assertThat(dispatcher.dispatchBatch()).isEqualTo(1);
+
+        assertThat(delivered).containsExactly(1L, 1L);
+        assertThat(markedProcessed).containsExactly(1L);
+    }
+
+    private static OutboxEvent outboxEvent(Long id) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setId(id);
+        outboxEvent.setType(EEventType.POST_LIKED);
+        outboxEvent.setEntityId(42L);
+        return outboxEvent;
+    }
+}
@@ -0,0 +1,49 @@
+package com.project.social_network.events;
+
+import com.project.social_network.entity.enums.EEventType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventRingBufferTest {
+
+    @Test
+    void drainsPublishedEventsInOrderUpToMax() {
+        EventRingBuffer ringBuffer = new EventRingBuffer(8);
+        for (long id = 1; id <= 5; id++) {
+            assertThat(ringBuffer.tryPublish(id, EEventType.POST_LIKED, id * 10, null)).isTrue();
+        }
+
+        List<DomainEvent> batch = new ArrayList<>();
+        assertThat(ringBuffer.drain(batch, 3)).isEqualTo(3);
+        assertThat(batch).extracting(DomainEvent::getOutboxId).containsExactly(1L, 2L, 3L);
+        assertThat(batch.get(0).getEntityId()).isEqualTo(10L);
+
+        // drained slots stay claimed until released
+        assertThat(ringBuffer.size()).isEqualTo(5);
+        ringBuffer.release(3);
+        assertThat(ringBuffer.size()).isEqualTo(2);
+        batch.clear();
+        assertThat(ringBuffer.drain(batch, 10)).isEqualTo(2);
+        assertThat(batch).extracting(DomainEvent::getOutboxId).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void rejectsWhenFullAndAcceptsAgainAfterRelease() {
+        EventRingBuffer ringBuffer = new EventRingBuffer(4);
+        for (long id = 0; id < ringBuffer.capacity(); id++) {
+            assertThat(ringBuffer.tryPublish(id, EEventType.COMMENT_CREATED, id, null)).isTrue();
+        }
+        assertThat(ringBuffer.tryPublish(99, EEventType.COMMENT_CREATED, 99L, null)).isFalse();
+
+        List<DomainEvent> batch = new ArrayList<>();
+        int drained = ringBuffer.drain(batch, 2);
+        ringBuffer.release(drained);
+
+        assertThat(ringBuffer.tryPublish(100, EEventType.COMMENT_CREATED, 100L, null)).isTrue();
+        assertThat(ringBuffer.size()).isEqualTo(ringBuffer.capacity() - 1);
+    }
+}
@@ -0,0 +1,272 @@
+package com.project.social_network.loadtest;
+
+import com.project.social_network.SocialNetworkApplication;
+import com.project.social_network.services.ProfileCounterService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end load harness. Boots the application against the configured local database,
+ * seeds a synthetic power-law social graph and replays an open-loop request mix at a fixed
+ * target rate. Latency is measured from each request's intended start time, so a stalled
+ * server is charged for the requests it delayed (coordinated-omission correction).
+ *
+ * Run with:
+ *   ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.project.social_network.loadtest.LoadTestHarness \
+ *       -Dloadtest.users=10000 -Dloadtest.rate=500 -Dloadtest.duration=60
+ *
+ * Properties (defaults in brackets): loadtest.users [5000], loadtest.friends-per-user [10],
+ * loadtest.posts [50000], loadtest.comments [100000], loadtest.likes [200000],
+ * loadtest.active-users [200], loadtest.rate requests/s [200], loadtest.warmup seconds [10],
+ * loadtest.duration seconds [60], loadtest.threads [256], loadtest.seed [42], loadtest.skip-seed [false].
+ */
+public class LoadTestHarness {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final String baseUrl;
+    private final Random random = new Random(Long.getLong("loadtest.seed", 42));
+    private final List<Session> sessions = new ArrayList<>();
+    private final List<Long> postIds;
+    private final List<Long> userIds;
+    private final Map<Endpoint, LatencyHistogram> histograms = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, AtomicLong> errors = new EnumMap<>(Endpoint.class);
+
+    enum Endpoint {
+        FRIENDS_POSTS(40),
+        POST_BY_ID(30),
+        LIKE(15),
+        COMMENT(10),
+        FRIEND_REQUEST(5);
+
+        private final int weight;
+
+        Endpoint(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final class Session {
+        private final String username;
+        private final String token;
+
+        private Session(String username, String token) {
+            this.username = username;
+            this.token = token;
+        }
+    }
+
+    LoadTestHarness(String baseUrl, List<Long> userIds, List<Long> postIds) {
+        this.baseUrl = baseUrl;
+        this.userIds = userIds;
+        this.postIds = postIds;
+        for (Endpoint endpoint : Endpoint.values()) {
+            histograms.put(endpoint, new LatencyHistogram());
+            errors.put(endpoint, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = SpringApplication.run(SocialNetworkApplication.class, args);
+        try {
+            String port = context.getEnvironment().getProperty("local.server.port", "8082");
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            SocialGraphSeeder seeder = new SocialGraphSeeder(jdbcTemplate,
+                    context.getBean(ProfileCounterService.class), Long.getLong("loadtest.seed", 42));
+            List<Long> userIds;
+            List<Long> postIds;
+            if (Boolean.getBoolean("loadtest.skip-seed")) {
+                userIds = jdbcTemplate.queryForList("select id from users where username like 'lt_user_%'", Long.class);
+                postIds = jdbcTemplate.queryForList("select id from posts", Long.class);
+            } else {
+                long start = System.nanoTime();
+                seeder.seed(Integer.getInteger("loadtest.users", 5000),
+                        Integer.getInteger("loadtest.friends-per-user", 10),
+                        Integer.getInteger("loadtest.posts", 50000),
+                        Integer.getInteger("loadtest.comments", 100000),
+                        Integer.getInteger("loadtest.likes", 200000));
+                System.out.printf("Seeded graph in %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                userIds = seeder.userIds;
+                postIds = seeder.postIds;
+            }
+
+            LoadTestHarness harness = new LoadTestHarness("http://localhost:" + port, userIds, postIds);
+            harness.login(Integer.getInteger("loadtest.active-users", 200));
+
+            int rate = Integer.getInteger("loadtest.rate", 200);
+            int threads = Integer.getInteger("loadtest.threads", 256);
+            System.out.println("Warming up");
+            harness.run(rate, Integer.getInteger("loadtest.warmup", 10), threads, false);
+            System.out.println("Measuring");
+            long elapsedNanos = harness.run(rate, Integer.getInteger("loadtest.duration", 60), threads, true);
+            harness.report(elapsedNanos);
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    void login(int activeUsers) throws IOException {
+        List<Long> shuffled = new ArrayList<>(userIds);
+        Collections.shuffle(shuffled, random);
+        for (Long userId : shuffled.subList(0, Math.min(activeUsers, shuffled.size()))) {
+            String body = "{\"username\":\"" + SocialGraphSeeder.email(userId) + "\",\"password\":\"" +
+                    SocialGraphSeeder.PASSWORD + "\"}";
+            Response response = send("POST", "/auth/sign-in", body, null);
+            Matcher matcher = TOKEN.matcher(response.body);
+            if (response.status == 200 && matcher.find()) {
+                sessions.add(new Session(SocialGraphSeeder.username(userId), matcher.group(1)));
+            }
+        }
+        if (sessions.isEmpty()) {
+            throw new IllegalStateException("No load test user could sign in");
+        }
+        System.out.printf("Signed in %d users%n", sessions.size());
+    }
+
+    /**
+     * Issues requests on a fixed schedule regardless of how fast earlier ones complete.
+     */
+    long run(int rate, int seconds, int threads, boolean record) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        long intervalNanos = 1_000_000_000L / rate;
+        long total = (long) rate * seconds;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long delay = intendedStart - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            Endpoint endpoint = pickEndpoint();
+            Session session = sessions.get(random.nextInt(sessions.size()));
+            long postId = postIds.get(random.nextInt(postIds.size()));
+            long otherUserId = userIds.get(random.nextInt(userIds.size()));
+            workers.execute(() -> execute(endpoint, session, postId, otherUserId, intendedStart, record));
+        }
+        workers.shutdown();
+        workers.awaitTermination(5, TimeUnit.MINUTES);
+        return System.nanoTime() - start;
+    }
+
+    void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.println();
+        System.out.printf("%-16s %10s %10s %10s %10s %10s %8s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "errors");
+        for (Endpoint endpoint : Endpoint.values()) {
+            LatencyHistogram histogram = histograms.get(endpoint);
+            System.out.printf("%-16s %10d %10.1f %10.2f %10.2f %10.2f %8d%n",
+                    endpoint.name().toLowerCase(),
+                    histogram.count(),
+                    histogram.count() / seconds,
+                    histogram.percentile(50) / 1000.0,
+                    histogram.percentile(99) / 1000.0,
+                    histogram.percentile(99.9) / 1000.0,
+                    errors.get(endpoint).get());
+        }
+    }
+
+    private void execute(Endpoint endpoint, Session session, long postId, long otherUserId,
+                         long intendedStart, boolean record) {
+        int status;
+        try {
+            switch (endpoint) {
+                case FRIENDS_POSTS:
+                    status = send("GET", "/posts/friends-posts", null, session.token).status;
+                    break;
+                case POST_BY_ID:
+                    status = send("GET", "/posts/" + postId, null, session.token).status;
+                    break;
+                case LIKE:
+                    status = send("POST", "/posts/" + postId + "/" + session.username + "/like", null,
+                            session.token).status;
+                    break;
+                case COMMENT:
+                    status = send("POST", "/comment/" + postId + "/create",
+                            "{\"message\":\"load test comment\"}", session.token).status;
+                    break;
+                default:
+                    status = send("POST", "/users/" + SocialGraphSeeder.username(otherUserId) + "/send-request",
+                            null, session.token).status;
+                    break;
+            }
+        } catch (IOException ex) {
+            status = -1;
+        }
+        if (record) {
+            histograms.get(endpoint).record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart));
+            if (status < 200 || status >= 300) {
+                errors.get(endpoint).incrementAndGet();
+            }
+        }
+    }
+
+    private Endpoint pickEndpoint() {
+        int roll = random.nextInt(100);
+        for (Endpoint endpoint : Endpoint.values()) {
+            roll -= endpoint.weight;
+            if (roll < 0) {
+                return endpoint;
+            }
+        }
+        return Endpoint.FRIENDS_POSTS;
+    }
+
+    private Response send(String method, String path, String body, String token) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(10_000);
+        connection.setReadTimeout(60_000);
+        if (token != null) {
+            connection.setRequestProperty("Authorization", token);
+        }
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        if (in != null) {
+            try (InputStream stream = in) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = stream.read(buffer)) != -1) {
+                    content.write(buffer, 0, read);
+                }
+            }
+        }
+        return new Response(status, new String(content.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.project.social_network.loadtest;
+
+import com.project.social_network.services.ProfileCounterService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Seeds users, friendships, posts, comments and likes with JDBC batches.
+ * Friendships follow preferential attachment, so the degree distribution is power-law
+ * with a few hub accounts, like a real social graph.
+ * Rows are inserted with zero profile counters, which are reconciled once everything is seeded.
+ */
+class SocialGraphSeeder {
+
+    static final String PASSWORD = "LoadTest1!";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProfileCounterService profileCounterService;
+    private final Random random;
+
+    final List<Long> userIds = new ArrayList<>();
+    final List<Long> postIds = new ArrayList<>();
+
+    SocialGraphSeeder(JdbcTemplate jdbcTemplate, ProfileCounterService profileCounterService, long seed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.profileCounterService = profileCounterService;
+        this.random = new Random(seed);
+    }
+
+    static String username(long userId) {
+        return "lt_user_" + userId;
+    }
+
+    static String email(long userId) {
+        return "lt_user_" + userId + "@loadtest.local";
+    }
+
+    void seed(int users, int friendsPerUser, int posts, int comments, int likes) {
+        seedUsers(users);
+        seedFriendships(friendsPerUser);
+        seedPosts(posts);
+        seedComments(comments);
+        seedLikes(likes);
+        profileCounterService.reconcile();
+    }
+
+    private void seedUsers(int users) {
+        long firstId = nextId("users");
+        String password = new BCryptPasswordEncoder().encode(PASSWORD);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> userRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> roleRows = new ArrayList<>(BATCH_SIZE);
+        for (long id = firstId; id < firstId + users; id++) {
+            userIds.add(id);
+            userRows.add(new Object[]{id, "Load", "Test", username(id), email(id), password, "ACTIVE", now});
+            roleRows.add(new Object[]{id, 0});
+            if (userRows.size() == BATCH_SIZE) {
+                flushUsers(userRows, roleRows);
+            }
+        }
+        flushUsers(userRows, roleRows);
+        resetSequence("users");
+    }
+
+    private void flushUsers(List<Object[]> userRows, List<Object[]> roleRows) {
+        jdbcTemplate.batchUpdate("insert into users (id, name, last_name, username, email, password, status, " +
+                "created_date) values (?, ?, ?, ?, ?, ?, ?, ?)", userRows);
+        jdbcTemplate.batchUpdate("insert into user_role (user_id, roles) values (?, ?)", roleRows);
+        userRows.clear();
+        roleRows.clear();
+    }
+
+    /**
+     * Barabasi-Albert: every new user befriends friendsPerUser existing users picked with
+     * probability proportional to their current degree.
+     */
+    private void seedFriendships(int friendsPerUser) {
+        long nextId = nextId("friendships");
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Set<Long> pairs = new HashSet<>();
+        List<Long> endpoints = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 0; i < userIds.size(); i++) {
+            long userId = userIds.get(i);
+            int wanted = Math.min(friendsPerUser, i);
+            int attempts = 0;
+            int added = 0;
+            while (added < wanted && attempts++ < wanted * 10) {
+                long other = endpoints.isEmpty()
+                        ? userIds.get(random.nextInt(i))
+                        : endpoints.get(random.nextInt(endpoints.size()));
+                long low = Math.min(userId, other);
+                long high = Math.max(userId, other);
+                if (low == high || !pairs.add((low << 32) | high)) {
+                    continue;
+                }
+                String state = random.nextInt(20) == 0 ? "PENDING" : "ACCEPTED";
+                rows.add(new Object[]{nextId++, low, high, userId, other, state, now});
+                endpoints.add(userId);
+                endpoints.add(other);
+                added++;
+                if (rows.size() == BATCH_SIZE) {
+                    flush("insert into friendships (id, low_user_id, high_user_id, requester_id, recipient_id, " +
+                            "state, created_date) values (?, ?, ?, ?, ?, ?, ?)", rows);
+                }
+            }
+        }
+        flush("insert into friendships (id, low_user_id, high_user_id, requester_id, recipient_id, state, " +
+                "created_date) values (?, ?, ?, ?, ?, ?, ?)", rows);
+        resetSequence("friendships");
+    }
+
+    private void seedPosts(int posts) {
+        long firstId = nextId("posts");
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (long id = firstId; id < firstId + posts; id++) {
+            postIds.add(id);
+            long author = powerLawPick(userIds);
+            Timestamp created = Timestamp.valueOf(now.minusMinutes(random.nextInt(60 * 24 * 90)));
+            rows.add(new Object[]{id, "Load test post " + id, 0, "ACTIVE", author, created});
+            if (rows.size() == BATCH_SIZE) {
+                flush("insert into posts (id, caption, likes, status, user_id, created_date) " +
+                        "values (?, ?, ?, ?, ?, ?)", rows);
+            }
+        }
+        flush("insert into posts (id, caption, likes, status, user_id, created_date) values (?, ?, ?, ?, ?, ?)", rows);
+        resetSequence("posts");
+    }
+
+    private void seedComments(int comments) {
+        long nextId = nextId("comments");
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < comments; i++) {
+            long postId = powerLawPick(postIds);
+            long userId = userIds.get(random.nextInt(userIds.size()));
+            rows.add(new Object[]{nextId++, postId, username(userId), userId, "Load test comment", "ACTIVE", now});
+            if (rows.size() == BATCH_SIZE) {
+                flush("insert into comments (id, post_id, username, user_id, message, status, created_date) " +
+                        "values (?, ?, ?, ?, ?, ?, ?)", rows);
+            }
+        }
+        flush("insert into comments (id, post_id, username, user_id, message, status, created_date) " +
+                "values (?, ?, ?, ?, ?, ?, ?)", rows);
+        resetSequence("comments");
+
+        // same update as db/backfill-post-comment-count.sql, the app only maintains the counter on its own writes
+        jdbcTemplate.update("update posts p set comment_count = c.active " +
+                "from (select post_id, count(*) as active from comments where status = 'ACTIVE' group by post_id) c " +
+                "where c.post_id = p.id and p.comment_count <> c.active");
+    }
+
+    private void seedLikes(int likes) {
+        Set<String> seen = new HashSet<>();
+        Map<Long, Integer> likesPerPost = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < likes; i++) {
+            long postId = powerLawPick(postIds);
+            String username = username(userIds.get(random.nextInt(userIds.size())));
+            if (!seen.add(postId + "|" + username)) {
+                continue;
+            }
+            likesPerPost.merge(postId, 1, Integer::sum);
+            rows.add(new Object[]{postId, username});
+            if (rows.size() == BATCH_SIZE) {
+                flush("insert into post_liked_users (post_id, liked_users) values (?, ?)", rows);
+            }
+        }
+        flush("insert into post_liked_users (post_id, liked_users) values (?, ?)", rows);
+
+        for (Map.Entry<Long, Integer> entry : likesPerPost.entrySet()) {
+            rows.add(new Object[]{entry.getValue(), entry.getKey()});
+            if (rows.size() == BATCH_SIZE) {
+                flush("update posts set likes = ? where id = ?", rows);
+            }
+        }
+        flush("update posts set likes = ? where id = ?", rows);
+    }
+
+    /**
+     * Zipf-like pick: low indexes are chosen far more often than high ones.
+     */
+    private long powerLawPick(List<Long> ids) {
+        double u = random.nextDouble();
+        int index = (int) Math.floor(Math.pow(ids.size() + 1, u)) - 1;
+        return ids.get(Math.min(Math.max(index, 0), ids.size() - 1));
+    }
+
+    private long nextId(String table) {
+        Long max = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        return (max == null ? 0 : max) + 1;
+    }
+
+    private void resetSequence(String table) {
+        jdbcTemplate.execute("select setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                "(select coalesce(max(id), 1) from " + table + "))");
+    }
+
+    private void flush(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.project.social_network.ratelimit;
+
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures what rate limiting adds to a limited write request: first the bucket lookup and CAS of
+ * {@link RateLimiter#tryAcquire} from several threads over many callers, then the whole
+ * {@link RateLimitFilter} in front of an empty filter chain against the bare chain.
+ *
+ * Run with:
+ *   ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.project.social_network.ratelimit.RateLimitBenchmark
+ *
+ * Properties (defaults in brackets): bench.threads [4], bench.keys [10000],
+ * bench.iterations [2000000], bench.capacity [20], bench.refill-per-second [5].
+ */
+public class RateLimitBenchmark {
+
+    private static final String ROUTE = "/posts/*/*/like";
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.getInteger("bench.threads", 4);
+        int keys = Integer.getInteger("bench.keys", 10_000);
+        int iterations = Integer.getInteger("bench.iterations", 2_000_000);
+        int capacity = Integer.getInteger("bench.capacity", 20);
+        double refillPerSecond = Double.parseDouble(System.getProperty("bench.refill-per-second", "5"));
+
+        String[] callers = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            callers[i] = "user" + i;
+        }
+
+        // warm up
+        runLimiter(new RateLimiter(capacity, refillPerSecond, 300), callers, threads, iterations / 10, false);
+        runFilter(iterations / 10, false);
+        runFilter(iterations / 10, true);
+
+        runLimiter(new RateLimiter(capacity, refillPerSecond, 300), callers, threads, iterations, true);
+        double bare = runFilter(iterations, false);
+        double filtered = runFilter(iterations, true);
+        System.out.printf("%-28s %10.0f ns/op%n", "filter chain without limit", bare);
+        System.out.printf("%-28s %10.0f ns/op%n", "filter chain with limit", filtered);
+        System.out.printf("%-28s %10.0f ns/op%n", "rate limit overhead", filtered - bare);
+    }
+
+    private static void runLimiter(RateLimiter limiter, String[] callers, int threads, int iterations,
+                                   boolean print)
+            throws InterruptedException {
+        LongAdder admitted = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        int perThread = iterations / threads;
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long ok = 0;
+                for (int i = 0; i < perThread; i++) {
+                    if (limiter.tryAcquire(ROUTE, callers[random.nextInt(callers.length)]) == 0) {
+                        ok++;
+                    }
+                }
+                admitted.add(ok);
+                rejected.add(perThread - ok);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        long total = (long) perThread * threads;
+        if (!print) {
+            return;
+        }
+        System.out.printf("%-28s %10.0f ns/op  %,d ops/s  admitted %,d  rejected %,d  buckets %,d%n",
+                "tryAcquire x" + threads, (double) elapsed * threads / total, total * 1_000_000_000L / elapsed,
+                admitted.sum(), rejected.sum(), limiter.size());
+    }
+
+    /**
+     * The limiter refills fast enough to admit every call, so this measures the admitted path,
+     * which is what every well-behaved caller pays.
+     */
+    private static double runFilter(int iterations, boolean limited) throws IOException, ServletException {
+        RateLimitFilter filter = new RateLimitFilter(new RateLimiter(1, 1e9, 300));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/posts/1/user/like");
+        request.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            MockFilterChain chain = new MockFilterChain();
+            if (limited) {
+                filter.doFilter(request, response, chain);
+            } else {
+                chain.doFilter(request, response);
+            }
+        }
+        return (double) (System.nanoTime() - begin) / iterations;
+    }
+}
@@ -0,0 +1,67 @@
+package com.project.social_network.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long START = TimeUnit.SECONDS.toNanos(1000);
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final TokenBucket bucket = new TokenBucket(3, 5, START);
+
+    @Test
+    void admitsABurstUpToCapacity() {
+        assertThat(bucket.tryConsume(START)).isZero();
+        assertThat(bucket.tryConsume(START)).isZero();
+        assertThat(bucket.tryConsume(START)).isZero();
+
+        assertThat(bucket.tryConsume(START)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void admitsAgainOnceOneTokenHasRefilled() {
+        drain(START);
+
+        assertThat(bucket.tryConsume(START + INTERVAL - 1)).isEqualTo(1);
+        assertThat(bucket.tryConsume(START + INTERVAL)).isZero();
+        assertThat(bucket.tryConsume(START + INTERVAL)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void refillIsCappedAtCapacity() {
+        drain(START);
+        long later = START + TimeUnit.MINUTES.toNanos(1);
+
+        drain(later);
+        assertThat(bucket.tryConsume(later)).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void rejectedCallsDoNotDelayTheNextToken() {
+        drain(START);
+        for (int i = 0; i < 10; i++) {
+            assertThat(bucket.tryConsume(START)).isPositive();
+        }
+
+        assertThat(bucket.tryConsume(START + INTERVAL)).isZero();
+    }
+
+    @Test
+    void isIdleOnlyOnceFullAndUntouched() {
+        long idle = TimeUnit.SECONDS.toNanos(300);
+        bucket.tryConsume(START);
+
+        assertThat(bucket.isIdle(START + idle - 1, idle)).isFalse();
+        assertThat(bucket.isIdle(START + idle, idle)).isTrue();
+    }
+
+    private void drain(long now) {
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryConsume(now)).isZero();
+        }
+    }
+}
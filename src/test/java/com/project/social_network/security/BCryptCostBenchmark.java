@@ -0,0 +1,49 @@
+package com.project.social_network.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Measures the time of one BCrypt hash and one verification per cost factor, single threaded,
+ * to pick security.bcrypt.strength for the target hardware. Aim for the highest cost whose
+ * verification stays within the sign-in latency budget at the expected hashing pool size.
+ *
+ * Run with:
+ *   ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.project.social_network.security.BCryptCostBenchmark
+ *
+ * Properties (defaults in brackets): bench.min-cost [8], bench.max-cost [14], bench.iterations [10].
+ */
+public class BCryptCostBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    public static void main(String[] args) {
+        int minCost = Integer.getInteger("bench.min-cost", 8);
+        int maxCost = Integer.getInteger("bench.max-cost", 14);
+        int iterations = Integer.getInteger("bench.iterations", 10);
+
+        System.out.printf("%-6s %14s %14s %14s%n", "cost", "encode ms/op", "matches ms/op", "matches/s/core");
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+            String hash = encoder.encode(PASSWORD);
+            // warm up
+            encoder.matches(PASSWORD, hash);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                hash = encoder.encode(PASSWORD);
+            }
+            double encodeMillis = (System.nanoTime() - start) / 1e6 / iterations;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                if (!encoder.matches(PASSWORD, hash)) {
+                    throw new IllegalStateException("Hash does not verify at cost " + cost);
+                }
+            }
+            double matchesMillis = (System.nanoTime() - start) / 1e6 / iterations;
+
+            System.out.printf("%-6d %14.1f %14.1f %14.1f%n", cost, encodeMillis, matchesMillis, 1000 / matchesMillis);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.project.social_network.services;
+
+import com.project.social_network.dto.CommentDTO;
+import com.project.social_network.entity.Comment;
+import com.project.social_network.entity.User;
+import com.project.social_network.events.DomainEventPublisher;
+import com.project.social_network.exceptions.PostNotFoundException;
+import com.project.social_network.exceptions.ServiceUnavailableException;
+import com.project.social_network.invalidation.InvalidationPublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CommentIngestionServiceTest {
+
+    private static final long POST_ID = 1L;
+    private static final long MISSING_POST_ID = 99L;
+
+    private final CommentService commentService = mock(CommentService.class);
+    private final FakeJdbcTemplate jdbcTemplate = new FakeJdbcTemplate();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private CommentIngestionService service;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.unblock.countDown();
+        if (service != null) {
+            service.destroy();
+        }
+        callers.shutdownNow();
+    }
+
+    @Test
+    void batchCompletesEveryCallerWithItsOwnId() throws Exception {
+        start(3, 10_000, 100);
+
+        List<Future<Comment>> futures = new ArrayList<>();
+        for (String message : Arrays.asList("first", "second", "third")) {
+            futures.add(submit(POST_ID, message));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            Comment comment = futures.get(i).get(5, TimeUnit.SECONDS);
+            // ids are handed out in row order, so a caller's id must point back at its own row
+            int row = (int) (comment.getId() - FakeJdbcTemplate.FIRST_ID);
+            assertThat(jdbcTemplate.insertedMessages.get(row)).isEqualTo(comment.getMessage());
+        }
+        assertThat(jdbcTemplate.insertStatements).isEqualTo(1);
+        assertThat(jdbcTemplate.insertedMessages).hasSize(3);
+        verifyNoInteractions(commentService);
+    }
+
+    @Test
+    void badRowFailsOnlyItsOwnRequest() throws Exception {
+        jdbcTemplate.failingMessages.add("bad");
+        start(3, 10_000, 100);
+
+        Future<Comment> good = submit(POST_ID, "good");
+        Future<Comment> bad = submit(POST_ID, "bad");
+        Future<Comment> other = submit(POST_ID, "other");
+
+        assertThat(good.get(5, TimeUnit.SECONDS).getMessage()).isEqualTo("good");
+        assertThat(other.get(5, TimeUnit.SECONDS).getMessage()).isEqualTo("other");
+        assertThatThrownBy(() -> bad.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+        assertThat(jdbcTemplate.insertedMessages).containsExactlyInAnyOrder("good", "other");
+    }
+
+    @Test
+    void commentOnMissingPostFailsWithoutFailingTheBatch() throws Exception {
+        start(2, 10_000, 100);
+
+        Future<Comment> good = submit(POST_ID, "good");
+        Future<Comment> missing = submit(MISSING_POST_ID, "lost");
+
+        assertThat(good.get(5, TimeUnit.SECONDS).getMessage()).isEqualTo("good");
+        assertThatThrownBy(() -> missing.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(PostNotFoundException.class);
+        assertThat(jdbcTemplate.insertStatements).isEqualTo(1);
+    }
+
+    @Test
+    void retryWithSameIdempotencyKeyReturnsTheOriginalComment() {
+        start(1, 0, 100);
+
+        Comment original = service.createComment(POST_ID, dto("hello"), principal(), "key-1");
+        Comment retried = service.createComment(POST_ID, dto("hello"), principal(), "key-1");
+
+        assertThat(retried).isSameAs(original);
+        assertThat(jdbcTemplate.insertedMessages).containsExactly("hello");
+    }
+
+    @Test
+    void idempotencyKeyOfFailedCommentIsForgotten() {
+        jdbcTemplate.failingMessages.add("hello");
+        start(1, 0, 100);
+
+        assertThatThrownBy(() -> service.createComment(POST_ID, dto("hello"), principal(), "key-1"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        jdbcTemplate.failingMessages.clear();
+        Comment retried = service.createComment(POST_ID, dto("hello"), principal(), "key-1");
+
+        assertThat(retried.getId()).isNotNull();
+        assertThat(jdbcTemplate.insertedMessages).containsExactly("hello");
+    }
+
+    @Test
+    void fullQueueFallsBackToCommentService() throws Exception {
+        Comment direct = new Comment();
+        when(commentService.saveComment(eq(POST_ID), any(CommentDTO.class), any(Principal.class))).thenReturn(direct);
+        jdbcTemplate.block = true;
+        start(1, 0, 1);
+
+        // the worker holds the first comment inside the insert, the second one fills the queue
+        Future<Comment> inserting = submit(POST_ID, "inserting");
+        jdbcTemplate.insertStarted.await(5, TimeUnit.SECONDS);
+        Future<Comment> queued = submitAndAwaitQueued("queued");
+
+        assertThat(service.createComment(POST_ID, dto("overflow"), principal(), null)).isSameAs(direct);
+        verify(commentService).saveComment(eq(POST_ID), any(CommentDTO.class), any(Principal.class));
+
+        jdbcTemplate.unblock.countDown();
+        assertThat(inserting.get(5, TimeUnit.SECONDS).getMessage()).isEqualTo("inserting");
+        assertThat(queued.get(5, TimeUnit.SECONDS).getMessage()).isEqualTo("queued");
+    }
+
+    @Test
+    void shutdownFailsCommentsStillQueued() throws Exception {
+        jdbcTemplate.block = true;
+        start(1, 0, 10);
+
+        submit(POST_ID, "inserting");
+        jdbcTemplate.insertStarted.await(5, TimeUnit.SECONDS);
+        Future<Comment> queued = submitAndAwaitQueued("queued");
+
+        service.destroy();
+
+        assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ServiceUnavailableException.class);
+    }
+
+    private void start(int maxBatch, long maxDelayMs, int queueCapacity) {
+        service = new CommentIngestionService(commentService, jdbcTemplate, mock(PlatformTransactionManager.class),
+                mock(DomainEventPublisher.class), mock(InvalidationPublisher.class), true, maxBatch, maxDelayMs,
+                queueCapacity, 5000, 600_000, 100);
+        service.start();
+    }
+
+    private Future<Comment> submit(long postId, String message) {
+        return callers.submit(() -> service.createComment(postId, dto(message), principal(), null));
+    }
+
+    /**
+     * Returns once the caller waits for its comment, which it only does after it was queued.
+     */
+    private Future<Comment> submitAndAwaitQueued(String message) throws InterruptedException {
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        Future<Comment> caller = callers.submit(() -> {
+            thread.set(Thread.currentThread());
+            return service.createComment(POST_ID, dto(message), principal(), null);
+        });
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((thread.get() == null || thread.get().getState() != Thread.State.TIMED_WAITING)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        return caller;
+    }
+
+    private static CommentDTO dto(String message) {
+        CommentDTO dto = new CommentDTO();
+        dto.setMessage(message);
+        return dto;
+    }
+
+    private static Principal principal() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("alice");
+        return new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList());
+    }
+
+    /**
+     * Knows one post, hands out ids from FIRST_ID in row order and fails any insert that
+     * contains one of failingMessages, like a constraint violation would.
+     */
+    private static final class FakeJdbcTemplate extends JdbcTemplate {
+
+        static final long FIRST_ID = 100;
+
+        final List<String> insertedMessages = Collections.synchronizedList(new ArrayList<>());
+        final Set<String> failingMessages = Collections.synchronizedSet(new HashSet<>());
+        final CountDownLatch insertStarted = new CountDownLatch(1);
+        final CountDownLatch unblock = new CountDownLatch(1);
+        volatile boolean block;
+        volatile int insertStatements;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            if (sql.startsWith("select id from posts")) {
+                return (List<T>) (Arrays.asList(args).contains(POST_ID)
+                        ? Collections.singletonList(POST_ID) : Collections.emptyList());
+            }
+            if (block) {
+                insertStarted.countDown();
+                try {
+                    unblock.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted", ex);
+                }
+            }
+            List<String> messages = new ArrayList<>();
+            for (int i = 3; i < args.length; i += 7) {
+                if (failingMessages.contains((String) args[i])) {
+                    throw new DataIntegrityViolationException("bad row: " + args[i]);
+                }
+                messages.add((String) args[i]);
+            }
+            synchronized (insertedMessages) {
+                insertStatements++;
+                List<T> ids = new ArrayList<>();
+                for (String message : messages) {
+                    ids.add((T) Long.valueOf(FIRST_ID + insertedMessages.size()));
+                    insertedMessages.add(message);
+                }
+                return ids;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            return (T) Long.valueOf(1);
+        }
+    }
+}
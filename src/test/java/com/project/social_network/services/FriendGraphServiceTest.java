@@ -0,0 +1,160 @@
+package com.project.social_network.services;
+
+import com.project.social_network.repository.FriendRepository;
+import com.project.social_network.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class FriendGraphServiceTest {
+
+    private final FriendRepository friendRepository = mock(FriendRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final FriendGraphService friendGraphService = new FriendGraphService(friendRepository, userRepository, 1000);
+    private final List<long[]> edges = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // 1 - 2 - 3 - 4 - 5 and a shortcut 1 - 6 - 5, plus a dead end 4 - 7
+        edge(1, 2);
+        edge(2, 3);
+        edge(3, 4);
+        edge(4, 5);
+        edge(1, 6);
+        edge(5, 6);
+        edge(4, 7);
+
+        when(friendRepository.findAcceptedEdgesByLowUserIds(anyCollection()))
+                .thenAnswer(invocation -> edgesWith(invocation.getArgument(0), 0));
+        when(friendRepository.findAcceptedEdgesByHighUserIds(anyCollection()))
+                .thenAnswer(invocation -> edgesWith(invocation.getArgument(0), 1));
+        when(userRepository.sumFriendCounts(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> userIds = invocation.getArgument(0);
+            long sum = 0;
+            for (long[] edge : edges) {
+                sum += (userIds.contains(edge[0]) ? 1 : 0) + (userIds.contains(edge[1]) ? 1 : 0);
+            }
+            return sum;
+        });
+    }
+
+    @Test
+    void findsShortestPathFromBothSides() {
+        FriendGraphService.PathResult result = friendGraphService.findShortestPath(1L, 5L, 6, 1000, 1000);
+
+        assertThat(result.isFound()).isTrue();
+        assertThat(result.getPath()).containsExactly(1L, 6L, 5L);
+        assertThat(result.getDistance()).isEqualTo(2);
+    }
+
+    @Test
+    void findsLongerPathWhenNoShortcutExists() {
+        FriendGraphService.PathResult result = friendGraphService.findShortestPath(2L, 7L, 6, 1000, 1000);
+
+        assertThat(result.getPath()).containsExactly(2L, 3L, 4L, 7L);
+    }
+
+    @Test
+    void respectsMaxDepth() {
+        FriendGraphService.PathResult result = friendGraphService.findShortestPath(2L, 7L, 2, 1000, 1000);
+
+        assertThat(result.isFound()).isFalse();
+        assertThat(result.isBudgetExceeded()).isFalse();
+        assertThat(result.getDistance()).isEqualTo(-1);
+    }
+
+    @Test
+    void stopsBeforeLoadingAdjacencyBeyondTheEdgeBudget() {
+        FriendGraphService.PathResult result = friendGraphService.findShortestPath(2L, 7L, 6, 1, 1000);
+
+        assertThat(result.isBudgetExceeded()).isTrue();
+        verify(userRepository).sumFriendCounts(anyCollection());
+        verify(friendRepository, never()).findAcceptedEdgesByLowUserIds(anyCollection());
+    }
+
+    @Test
+    void stopsWhenFrontierGrowsBeyondItsCap() {
+        FriendGraphService.PathResult result = friendGraphService.findShortestPath(4L, 1L, 6, 1000, 2);
+
+        assertThat(result.isBudgetExceeded()).isTrue();
+    }
+
+    @Test
+    void searchDoesNotFillTheAdjacencyCache() {
+        friendGraphService.findShortestPath(1L, 5L, 6, 1000, 1000);
+        friendGraphService.getFriendIds(1L);
+
+        verify(friendRepository, times(3)).findAcceptedEdgesByLowUserIds(anyCollection());
+    }
+
+    @Test
+    void intersectsSmallAgainstLargeList() {
+        long[] hub = new long[10_000];
+        for (int i = 0; i < hub.length; i++) {
+            hub[i] = i * 2L;
+        }
+        long[] few = {1, 4, 5, 398, 19_998, 30_000};
+
+        assertThat(FriendGraphService.intersect(few, hub, 0, Integer.MAX_VALUE)).containsExactly(4L, 398L, 19_998L);
+        assertThat(FriendGraphService.intersect(hub, few, 0, Integer.MAX_VALUE)).containsExactly(4L, 398L, 19_998L);
+    }
+
+    @Test
+    void intersectionPagesByOffsetAndLimit() {
+        long[] a = {1, 2, 3, 4, 5, 6, 7, 8};
+        long[] b = {2, 3, 5, 7, 8, 11};
+
+        assertThat(FriendGraphService.intersect(a, b, 0, 2)).containsExactly(2L, 3L);
+        assertThat(FriendGraphService.intersect(a, b, 2, 2)).containsExactly(5L, 7L);
+        assertThat(FriendGraphService.intersect(a, b, 4, 2)).containsExactly(8L);
+        assertThat(FriendGraphService.intersect(a, b, 10, 2)).isEmpty();
+        assertThat(FriendGraphService.intersect(a, new long[0], 0, 2)).isEmpty();
+    }
+
+    @Test
+    void countsMutualFriends() {
+        // 1 and 5 share 6, and 4 once it befriends 1
+        assertThat(friendGraphService.countMutualFriends(1L, 5L)).isEqualTo(1);
+        edge(1, 4);
+        friendGraphService.invalidate(1L, 4L);
+
+        assertThat(friendGraphService.countMutualFriends(1L, 5L)).isEqualTo(2);
+        assertThat(friendGraphService.getMutualFriendIds(1L, 5L, 1, 10)).containsExactly(6L);
+    }
+
+    @Test
+    void loadThatOverlapsAnInvalidationIsNotCached() {
+        when(friendRepository.findAcceptedEdgesByLowUserIds(anyCollection())).thenAnswer(invocation -> {
+            // an accepted friendship commits while the stale state is being read
+            friendGraphService.invalidate(1L);
+            return edgesWith(invocation.getArgument(0), 0);
+        }).thenAnswer(invocation -> edgesWith(invocation.getArgument(0), 0));
+
+        friendGraphService.getFriendIds(1L);
+        friendGraphService.getFriendIds(1L);
+        friendGraphService.getFriendIds(1L);
+
+        verify(friendRepository, times(2)).findAcceptedEdgesByLowUserIds(anyCollection());
+    }
+
+    private void edge(long a, long b) {
+        edges.add(new long[]{Math.min(a, b), Math.max(a, b)});
+    }
+
+    private List<Object[]> edgesWith(Collection<Long> userIds, int side) {
+        List<Object[]> result = new ArrayList<>();
+        for (long[] edge : edges) {
+            if (userIds.contains(edge[side])) {
+                result.add(new Object[]{edge[0], edge[1]});
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,115 @@
+package com.project.social_network.services;
+
+import com.project.social_network.entity.Comment;
+import com.project.social_network.entity.Friend;
+import com.project.social_network.entity.Post;
+import com.project.social_network.entity.User;
+import com.project.social_network.entity.enums.EFriendshipState;
+import com.project.social_network.entity.enums.ERole;
+import com.project.social_network.entity.enums.EStatus;
+import com.project.social_network.repository.CommentRepository;
+import com.project.social_network.repository.FriendRepository;
+import com.project.social_network.repository.PostRepository;
+import com.project.social_network.repository.UserRepository;
+import com.project.social_network.sql.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the statement count of the friends feed: it must not grow with the number of posts.
+ * Needs the database configured in application.properties, like SocialNetworkApplicationTests.
+ */
+@SpringBootTest
+@Transactional
+class PostServiceSqlBudgetTest {
+
+    private static final int FRIENDS = 3;
+    private static final int POSTS_PER_FRIEND = 10;
+    private static final int FRIENDS_FEED_BUDGET = 12;
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private FriendRepository friendRepository;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Principal principal;
+
+    @BeforeEach
+    void setUp() {
+        String prefix = "budget" + System.nanoTime();
+        User reader = createUser(prefix + "reader");
+        for (int i = 0; i < FRIENDS; i++) {
+            User friend = createUser(prefix + "friend" + i);
+            Friend friendship = new Friend(reader.getId(), friend.getId());
+            friendship.setState(EFriendshipState.ACCEPTED);
+            friendRepository.save(friendship);
+            for (int j = 0; j < POSTS_PER_FRIEND; j++) {
+                createPost(friend, reader);
+            }
+        }
+        // start from an empty persistence context, as a request does
+        entityManager.flush();
+        entityManager.clear();
+        principal = reader::getUsername;
+    }
+
+    @Test
+    void friendsFeedStaysWithinItsStatementBudget() {
+        AtomicReference<List<Post>> posts = new AtomicReference<>();
+        SqlStatementCounter.assertBudget(FRIENDS_FEED_BUDGET, () -> {
+            posts.set(postService.getAllPostsOfFriends(principal, null, FRIENDS * POSTS_PER_FRIEND));
+            for (Post post : posts.get()) {
+                post.getComments().size();
+            }
+        });
+
+        assertThat(posts.get()).hasSize(FRIENDS * POSTS_PER_FRIEND);
+    }
+
+    private User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setName(username);
+        user.setLastName(username);
+        user.setPassword("password");
+        user.setStatus(EStatus.ACTIVE);
+        user.getRoles().add(ERole.ROLE_USER);
+        return userRepository.save(user);
+    }
+
+    private void createPost(User author, User commenter) {
+        Post post = new Post();
+        post.setUser(author);
+        post.setCaption("caption");
+        post.setLikes(0);
+        post.setStatus(EStatus.ACTIVE);
+        postRepository.save(post);
+
+        Comment comment = new Comment();
+        comment.setPost(post);
+        comment.setUserId(commenter.getId());
+        comment.setUsername(commenter.getUsername());
+        comment.setMessage("comment");
+        comment.setStatus(EStatus.ACTIVE);
+        commentRepository.save(comment);
+    }
+}
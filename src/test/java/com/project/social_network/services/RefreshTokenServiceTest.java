@@ -0,0 +1,69 @@
+package com.project.social_network.services;
+
+import com.project.social_network.entity.RefreshToken;
+import com.project.social_network.entity.User;
+import com.project.social_network.entity.enums.EStatus;
+import com.project.social_network.exceptions.InvalidRefreshTokenException;
+import com.project.social_network.repository.RefreshTokenRepository;
+import com.project.social_network.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenServiceTest {
+
+    private final RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RefreshTokenService refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository);
+    private final RefreshToken refreshToken = new RefreshToken();
+    private final User user = new User();
+
+    @BeforeEach
+    void setUp() {
+        refreshToken.setId(7L);
+        refreshToken.setUserId(3L);
+        refreshToken.setExpiryDate(LocalDateTime.now().plusDays(1));
+        user.setId(3L);
+        user.setStatus(EStatus.ACTIVE);
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(refreshToken));
+        when(userRepository.findUserById(3L)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void tokenCanBeConsumedOnlyOnce() {
+        // the conditional update succeeds for the first caller only, as it does under concurrency
+        when(refreshTokenRepository.revokeIfActive(7L)).thenReturn(1, 0);
+
+        assertThat(refreshTokenService.consumeToken("token")).isSameAs(user);
+        assertThatThrownBy(() -> refreshTokenService.consumeToken("token"))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        verify(refreshTokenRepository).revokeAllByUserId(3L);
+    }
+
+    @Test
+    void expiredTokenIsRejectedWithoutRevokingTheFamily() {
+        refreshToken.setExpiryDate(LocalDateTime.now().minusMinutes(1));
+
+        assertThatThrownBy(() -> refreshTokenService.consumeToken("token"))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        verify(refreshTokenRepository, never()).revokeIfActive(anyLong());
+        verify(refreshTokenRepository, never()).revokeAllByUserId(anyLong());
+    }
+
+    @Test
+    void deletedAccountCannotRefresh() {
+        user.setStatus(EStatus.INACTIVE);
+        when(refreshTokenRepository.revokeIfActive(7L)).thenReturn(1);
+
+        assertThatThrownBy(() -> refreshTokenService.consumeToken("token"))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        verify(refreshTokenRepository).revokeAllByUserId(3L);
+    }
+}
@@ -0,0 +1,71 @@
+package com.project.social_network.services;
+
+import com.project.social_network.entity.enums.EEventType;
+import com.project.social_network.events.DomainEvent;
+import com.project.social_network.events.EventRingBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrendingServiceTest {
+
+    @Test
+    void replayedEventIsAppliedOnce() {
+        TrendingService trendingService = new TrendingService(6, 100, 1000);
+        trendingService.onEvents(events(new long[]{1, 2}, new long[]{10, 20}));
+        // a replay of event 1 must not count the like on post 10 a second time
+        trendingService.onEvents(events(new long[]{1}, new long[]{10}));
+        trendingService.onEvents(events(new long[]{3}, new long[]{20}));
+
+        assertThat(trendingService.getTopPostIds(2)).containsExactly(20L, 10L);
+    }
+
+    @Test
+    void unlikeOfTheOnlyLikeRemovesThePost() {
+        TrendingService trendingService = new TrendingService(6, 100, 1000);
+        trendingService.recordLike(10L);
+        trendingService.recordUnlike(10L);
+
+        assertThat(trendingService.getTopPostIds(10)).isEmpty();
+    }
+
+    @Test
+    void unlikeTakesNothingFromComments() {
+        TrendingService trendingService = new TrendingService(6, 100, 1000);
+        trendingService.recordComment(10L);
+        trendingService.recordLike(10L);
+        trendingService.recordLike(20L);
+        trendingService.recordUnlike(10L);
+        trendingService.recordUnlike(10L);
+
+        // post 10 keeps its comment, which outweighs the single like of post 20
+        assertThat(trendingService.getTopPostIds(10)).containsExactly(10L, 20L);
+    }
+
+    @Test
+    void unlikesSpreadOverTheRemainingLikes() {
+        TrendingService trendingService = new TrendingService(6, 100, 1000);
+        trendingService.recordLike(10L);
+        trendingService.recordLike(10L);
+        trendingService.recordLike(10L);
+        trendingService.recordLike(20L);
+        trendingService.recordLike(20L);
+        trendingService.recordUnlike(10L);
+        trendingService.recordUnlike(10L);
+
+        assertThat(trendingService.getTopPostIds(10)).containsExactly(20L, 10L);
+    }
+
+    private static List<DomainEvent> events(long[] outboxIds, long[] postIds) {
+        EventRingBuffer ringBuffer = new EventRingBuffer(outboxIds.length);
+        for (int i = 0; i < outboxIds.length; i++) {
+            ringBuffer.tryPublish(outboxIds[i], EEventType.POST_LIKED, postIds[i], null);
+        }
+        List<DomainEvent> events = new ArrayList<>();
+        ringBuffer.drain(events, outboxIds.length);
+        return events;
+    }
+}